@@ -55,6 +55,7 @@ import java.lang.reflect.Array;
       synchronized (this) {
         other = readConflict(me);
         if (other == null) {
+          manager.opened(me);
           return primary[i];
         }
       }
@@ -71,6 +72,7 @@ import java.lang.reflect.Array;
         other = writeConflict(me);
         if (other == null) {
           primary[i] = value;
+          manager.opened(me);
           return;
         }
       }
@@ -112,6 +114,7 @@ import java.lang.reflect.Array;
         throw new PanicException(FORMAT, writer.getStatus());
     }
     writer = Transaction.COMMITTED;
+    me.share();
     readers.add(me);
     return null;
   }
@@ -157,6 +160,7 @@ import java.lang.reflect.Array;
       default:
         throw new PanicException(FORMAT, writer.getStatus());
     }
+    me.share();
     writer = me;
     return null;
   }
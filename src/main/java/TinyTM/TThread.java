@@ -12,48 +12,98 @@
 
 package TinyTM;
 
+import TinyTM.contention.ContentionManager;
 import TinyTM.exceptions.AbortedException;
 import TinyTM.exceptions.PanicException;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicInteger;
 public class TThread extends java.lang.Thread {
   static Runnable onStart = new DefaultRunnable();
   static Runnable onAbort = new DefaultRunnable();
   static Runnable onCommit = new DefaultRunnable();
   static Callable<Boolean> onValidate = new DefaultCallable();
-  static public final AtomicInteger commits = new AtomicInteger(0);
-  static public final AtomicInteger aborts = new AtomicInteger(0);
+  // whether transactions of each class have been seen to write
+  static final ClassValue<Profile> profiles = new ClassValue<Profile>() {
+    @Override
+    protected Profile computeValue(Class<?> type) {
+      return new Profile();
+    }
+  };
   
   public TThread() {
     
   }
   
+  /**
+   * Run a transaction until it commits. Transactions of a class that has
+   * never written start read-only, without read-set logging; the first time
+   * one writes, it is retried read-write and its class is remembered.
+   * @param xaction transaction body
+   * @return result of the committed attempt
+   */
   public static <T> T doIt(Callable<T> xaction) throws Exception {
+    return doIt(xaction, profiles.get(xaction.getClass()));
+  }
+  /**
+   * Run a transaction that promises not to write. Each read is validated
+   * against the start stamp when it is made, so nothing is logged and
+   * nothing is left to validate at commit.
+   * @param xaction transaction body
+   * @return result of the committed attempt
+   */
+  public static <T> T doReadOnly(Callable<T> xaction) throws Exception {
+    return doIt(xaction, null);
+  }
+  
+  /**
+   * @param profile writes seen for this class, or null if declared read-only
+   */
+  private static <T> T doIt(Callable<T> xaction, Profile profile) throws Exception {
     T result;
     Transaction me;
     Thread myThread = Thread.currentThread();
     Exception rethrow = null;
-    while (!myThread.isInterrupted()) {
-      me = new Transaction();
-      Transaction.setLocal(me);
-      onStart.run();
-      try {
-        result = xaction.call();
-        if (onValidate.call() && me.commit()) {
-          commits.getAndIncrement();
-          onCommit.run();
-          return result;
+    boolean readOnly = profile == null || !profile.writes;
+    ContentionManager manager = ContentionManager.getLocal();
+    long[] stats = TransactionStats.stripe();
+    int retries = 0;
+    try {
+      while (!myThread.isInterrupted()) {
+        me = Transaction.begin(readOnly);
+        manager.begin(me);
+        long start = System.nanoTime();
+        onStart.run();
+        try {
+          result = xaction.call();
+          if (onValidate.call() && me.commit()) {
+            manager.committed(me);
+            TransactionStats.committed(stats, retries);
+            onCommit.run();
+            return result;
+          }
+        } catch (AbortedException e) {
+        } catch (InterruptedException e) {
+          myThread.interrupt();
+        } catch (Exception e) {
+          throw new PanicException(e);
+        }
+        // an interrupted attempt was never aborted, so has no cause to count
+        if (me.getStatus() == Transaction.Status.ABORTED) {
+          TransactionStats.aborted(stats, me.getAbortCause(), System.nanoTime() - start);
+        }
+        retries++;
+        onAbort.run();
+        if (me.isPromoted()) {
+          if (profile == null) {
+            throw new PanicException("write in a read-only transaction");
+          }
+          profile.writes = true;
+          readOnly = false;
         }
-      } catch (AbortedException e) {
-      } catch (InterruptedException e) {
-        myThread.interrupt();
-      } catch (Exception e) {
-        throw new PanicException(e);
       }
-      aborts.getAndIncrement();
-      onAbort.run();
+      throw new InterruptedException();
+    } finally {
+      manager.ended(); // committed or not, the next transaction starts afresh
     }
-    throw new InterruptedException();
   }
   public static void onStart(Runnable handler) {
     onStart = handler;
@@ -76,4 +126,8 @@ public class TThread extends java.lang.Thread {
     public Boolean call() {
       return true;}
   }
+  static class Profile {
+    // benign race: a stale false only costs one more promoted attempt
+    boolean writes;
+  }
 }
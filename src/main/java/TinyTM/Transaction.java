@@ -12,12 +12,72 @@
 
 package TinyTM;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
+/**
+ * Transaction descriptor. Each thread reuses one descriptor for all its
+ * transactions, so starting a transaction allocates nothing. Every attempt
+ * runs in a new epoch, and the status word holds the epoch alongside the
+ * status, so a thread that still holds a reference from an earlier attempt
+ * cannot commit or abort a later one by mistake.
+ * <p>
+ * A descriptor whose reference is stored where other threads can find it
+ * after the transaction ends must be marked with <code>share</code>: it is
+ * then never reused, since its final status must stay readable.
+ */
 public class Transaction {
   public enum Status {ABORTED, ACTIVE, COMMITTED};
+  /**
+   * Why an attempt aborted.
+   */
+  public enum AbortCause {
+    /** a read was inconsistent with the read stamp, or failed validation */
+    VALIDATION,
+    /** a lock needed to commit stayed held by another committer */
+    LOCK_TIMEOUT,
+    /** another thread's contention manager aborted it, or its own gave up */
+    KILLED,
+    /** a read-only attempt tried to write, and is retried read-write */
+    PROMOTION,
+    /** the transaction aborted itself for any other reason */
+    EXPLICIT
+  };
+  private static final Status[] STATUS = Status.values();
+  private static final long MASK = 3L;
+  private static final long ACTIVE = Status.ACTIVE.ordinal();
+  private static final VarHandle STATE;
+  static {
+    try {
+      STATE = MethodHandles.lookup().findVarHandle(Transaction.class, "state", long.class);
+    } catch (ReflectiveOperationException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
   public static final Transaction COMMITTED = new Transaction(Status.COMMITTED);
-  private final AtomicReference<Status> status;
+  static {
+    COMMITTED.shared = true;
+  }
+  // epoch << 2 | status ordinal
+  private volatile long state;
+  // never reused once set; only the owner thread touches it
+  private boolean shared;
+  // per-thread state kept with the descriptor by the TM implementation
+  private Object attachment;
+  // current attempt keeps no read set
+  private boolean readOnly;
+  // current attempt was read-only and tried to write
+  private boolean promoted;
+  // set by the owner's contention manager; meaning depends on the manager
+  private volatile long priority;
+  // owner is backing off for another transaction
+  private volatile boolean waiting;
+  // thread that runs this descriptor's transactions
+  private final Thread owner = Thread.currentThread();
+  // why the owner aborted the current attempt, or null
+  private AbortCause cause;
+  // another thread aborted, or tried to abort, the current attempt
+  private volatile boolean killed;
   static ThreadLocal<Transaction> local = new ThreadLocal<Transaction>() {
     @Override
     protected Transaction initialValue() {
@@ -25,23 +85,143 @@ public class Transaction {
     }
   };
   public Transaction() {
-    status = new AtomicReference<Status>(Status.ACTIVE);
+    state = ACTIVE;
   }
   private Transaction(Transaction.Status myStatus) {
-    status = new AtomicReference<Status>(myStatus);
+    state = myStatus.ordinal();
   }
   public Status getStatus() {
-    return status.get();
+    return STATUS[(int) (state & MASK)];
+  }
+  /**
+   * @return number of the current attempt on this descriptor
+   */
+  public long getEpoch() {
+    return state >>> 2;
   }
   public boolean commit() {
-    return status.compareAndSet(Status.ACTIVE, Status.COMMITTED);
+    return finish(state, Status.COMMITTED);
   }
   public boolean abort() {
-    return status.compareAndSet(Status.ACTIVE, Status.ABORTED);
+    long expected = state;
+    if (Thread.currentThread() != owner) {
+      killed = true;
+    }
+    return finish(expected, Status.ABORTED);
+  }
+  /**
+   * Abort only if the descriptor is still running the given attempt.
+   * @param epoch attempt to abort
+   * @return whether this call aborted it
+   */
+  public boolean abort(long epoch) {
+    if (Thread.currentThread() != owner && getEpoch() == epoch) {
+      killed = true;
+    }
+    return finish(epoch << 2 | ACTIVE, Status.ABORTED);
+  }
+  /**
+   * Abort the current attempt, recording why. Call from the owner thread;
+   * the first cause recorded for an attempt is the one reported.
+   * @param why cause of the abort
+   * @return whether this call aborted it
+   */
+  public boolean abort(AbortCause why) {
+    if (cause == null) {
+      cause = why;
+    }
+    return finish(state, Status.ABORTED);
+  }
+  /**
+   * Why the current attempt aborted: the cause its owner recorded, else
+   * <code>KILLED</code> if another thread aborted it, else
+   * <code>EXPLICIT</code>.
+   * @return cause of the abort
+   */
+  public AbortCause getAbortCause() {
+    if (cause != null) {
+      return cause;
+    }
+    return killed ? AbortCause.KILLED : AbortCause.EXPLICIT;
+  }
+  private boolean finish(long expected, Status outcome) {
+    return (expected & MASK) == ACTIVE
+        && STATE.compareAndSet(this, expected, (expected & ~MASK) | outcome.ordinal());
+  }
+  /**
+   * Keep this descriptor out of reuse, because a reference to it is about
+   * to outlive the transaction. Call from the owner thread.
+   */
+  public void share() {
+    shared = true;
+  }
+  /**
+   * A read-only transaction validates each read as it is made and keeps no
+   * read set.
+   * @return whether the current attempt is read-only
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+  /**
+   * Abort a read-only attempt that needs to write, so that it is retried
+   * read-write. Call from the owner thread.
+   */
+  public void promote() {
+    promoted = true;
+    abort(AbortCause.PROMOTION);
+  }
+  public boolean isPromoted() {
+    return promoted;
+  }
+  /**
+   * Contention managers compare transactions by priority. The owner's
+   * manager sets it, and defines whether higher or lower wins.
+   * @return priority of the current attempt
+   */
+  public long getPriority() {
+    return priority;
+  }
+  public void setPriority(long priority) {
+    this.priority = priority;
+  }
+  public boolean isWaiting() {
+    return waiting;
+  }
+  public void setWaiting(boolean waiting) {
+    this.waiting = waiting;
+  }
+  public Object attachment() {
+    return attachment;
+  }
+  public void attach(Object attachment) {
+    this.attachment = attachment;
   }
   public static Transaction getLocal() {
     return local.get();
   }
+  /**
+   * Start a new attempt: the thread's descriptor in its next epoch, or a
+   * fresh descriptor if the old one was shared.
+   * @param readOnly whether the attempt skips read-set logging
+   * @return this thread's active transaction
+   */
+  static Transaction begin(boolean readOnly) {
+    Transaction me = local.get();
+    if (me.shared) {
+      Transaction fresh = new Transaction();
+      fresh.attachment = me.attachment;
+      local.set(fresh);
+      me = fresh;
+    } else {
+      me.state = ((me.state >>> 2) + 1) << 2 | ACTIVE;
+    }
+    me.readOnly = readOnly;
+    me.promoted = false;
+    me.cause = null;
+    me.killed = false;
+    return me;
+  }
   public static void setLocal(Transaction transaction) {
     local.set(transaction);
   }
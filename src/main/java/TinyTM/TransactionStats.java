@@ -0,0 +1,233 @@
+/*
+ * TransactionStats.java
+ *
+ * Created on October 19, 2026, 1:10 AM
+ */
+
+package TinyTM;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Commit and abort statistics for <code>TThread.doIt</code>: commits, aborts
+ * by cause, time spent in aborted attempts, and a histogram of retries per
+ * commit.
+ * <p>
+ * Each thread counts into a stripe of its own, padded against false sharing,
+ * which no other thread writes. Readers add up all stripes, so counting
+ * costs no shared writes and a <code>Snapshot</code> is only approximately
+ * atomic. Once a thread has exited, its counts are folded into a retired
+ * total and its stripe is dropped, the next time a snapshot is taken or a
+ * thread counts for the first time, so there is never more than one stripe
+ * per live thread plus those of threads that exited since. Call
+ * <code>register</code> to publish the statistics as an MXBean.
+ */
+public final class TransactionStats implements TransactionStatsMXBean {
+  public static final String NAME = "TinyTM:type=TransactionStats";
+  /**
+   * Buckets in the retries-per-commit histogram.
+   */
+  public static final int BUCKETS = 16;
+  private static final Transaction.AbortCause[] CAUSES = Transaction.AbortCause.values();
+  // stripe layout: padding, commits, aborts by cause, aborted nanos, histogram, padding
+  private static final int PAD = 8;
+  private static final int COMMITS = PAD;
+  private static final int ABORTS = COMMITS + 1;
+  private static final int ABORTED_NANOS = ABORTS + CAUSES.length;
+  private static final int RETRIES = ABORTED_NANOS + 1;
+  private static final int SLOTS = RETRIES + BUCKETS + PAD;
+  private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+  // stripes of threads not yet known to have exited, guarded by itself
+  private static final List<Stripe> stripes = new ArrayList<Stripe>();
+  // counts of threads that have exited, guarded by stripes
+  private static final long[] retired = new long[SLOTS];
+  private static final ThreadLocal<long[]> local = ThreadLocal.withInitial(() -> {
+    long[] counts = new long[SLOTS];
+    synchronized (stripes) {
+      retire();
+      stripes.add(new Stripe(Thread.currentThread(), counts));
+    }
+    return counts;
+  });
+
+  private TransactionStats() {
+  }
+
+  /**
+   * @return this thread's counters
+   */
+  static long[] stripe() {
+    return local.get();
+  }
+
+  /**
+   * Count a commit.
+   * @param stripe this thread's counters
+   * @param retries aborted attempts before the one that committed
+   */
+  static void committed(long[] stripe, int retries) {
+    add(stripe, COMMITS, 1);
+    add(stripe, RETRIES + bucket(retries), 1);
+  }
+
+  /**
+   * Count an aborted attempt.
+   * @param stripe this thread's counters
+   * @param cause why it aborted
+   * @param nanos how long the attempt ran
+   */
+  static void aborted(long[] stripe, Transaction.AbortCause cause, long nanos) {
+    add(stripe, ABORTS + cause.ordinal(), 1);
+    add(stripe, ABORTED_NANOS, nanos);
+  }
+
+  // single writer, so a plain read-modify-write; opaque so readers see whole values
+  private static void add(long[] stripe, int slot, long delta) {
+    SLOT.setOpaque(stripe, slot, (long) SLOT.getOpaque(stripe, slot) + delta);
+  }
+
+  private static int bucket(int retries) {
+    return Math.min(32 - Integer.numberOfLeadingZeros(retries), BUCKETS - 1);
+  }
+
+  /**
+   * Add up every thread's counters.
+   * @return current totals
+   */
+  public static Snapshot snapshot() {
+    long[] totals;
+    synchronized (stripes) {
+      retire();
+      totals = retired.clone();
+      for (Stripe stripe : stripes) {
+        addTo(totals, stripe.counts);
+      }
+    }
+    return new Snapshot(totals);
+  }
+
+  /**
+   * Fold the counts of threads that have exited into the retired total and
+   * drop their stripes. Caller holds the lock on <code>stripes</code>.
+   */
+  private static void retire() {
+    stripes.removeIf(stripe -> {
+      Thread thread = stripe.thread.get();
+      // once isAlive returns false, the thread's last counts are visible
+      if (thread != null && thread.isAlive()) {
+        return false;
+      }
+      addTo(retired, stripe.counts);
+      return true;
+    });
+  }
+
+  private static void addTo(long[] totals, long[] counts) {
+    for (int i = COMMITS; i < SLOTS - PAD; i++) {
+      totals[i] += (long) SLOT.getOpaque(counts, i);
+    }
+  }
+
+  /**
+   * Register with the platform MBean server under <code>NAME</code>.
+   * @throws JMException if registration fails, for instance because it was
+   * already done
+   */
+  public static void register() throws JMException {
+    ManagementFactory.getPlatformMBeanServer().registerMBean(new TransactionStats(), new ObjectName(NAME));
+  }
+
+  public long getCommits() {
+    return snapshot().getCommits();
+  }
+
+  public long getAborts() {
+    return snapshot().getAborts();
+  }
+
+  public Map<String, Long> getAbortsByCause() {
+    return snapshot().getAbortsByCause();
+  }
+
+  public long getAbortedNanos() {
+    return snapshot().getAbortedNanos();
+  }
+
+  public long[] getRetriesHistogram() {
+    return snapshot().getRetriesHistogram();
+  }
+
+  /**
+   * One thread's counters. The thread is only weakly held, so that a
+   * stripe does not keep an exited thread reachable.
+   */
+  private static final class Stripe {
+    final WeakReference<Thread> thread;
+    final long[] counts;
+
+    Stripe(Thread thread, long[] counts) {
+      this.thread = new WeakReference<Thread>(thread);
+      this.counts = counts;
+    }
+  }
+
+  /**
+   * Totals at one point in time.
+   */
+  public static final class Snapshot {
+    private final long[] totals;
+
+    Snapshot(long[] totals) {
+      this.totals = totals;
+    }
+
+    public long getCommits() {
+      return totals[COMMITS];
+    }
+
+    public long getAborts() {
+      long sum = 0;
+      for (int i = 0; i < CAUSES.length; i++) {
+        sum += totals[ABORTS + i];
+      }
+      return sum;
+    }
+
+    public long getAborts(Transaction.AbortCause cause) {
+      return totals[ABORTS + cause.ordinal()];
+    }
+
+    public Map<String, Long> getAbortsByCause() {
+      Map<String, Long> map = new LinkedHashMap<String, Long>();
+      for (Transaction.AbortCause cause : CAUSES) {
+        map.put(cause.name(), getAborts(cause));
+      }
+      return Collections.unmodifiableMap(map);
+    }
+
+    public long getAbortedNanos() {
+      return totals[ABORTED_NANOS];
+    }
+
+    public long[] getRetriesHistogram() {
+      return Arrays.copyOfRange(totals, RETRIES, RETRIES + BUCKETS);
+    }
+
+    @Override
+    public String toString() {
+      return "commits " + getCommits() + ", aborts " + getAbortsByCause() + ", aborted ms "
+          + getAbortedNanos() / 1000000 + ", retries " + Arrays.toString(getRetriesHistogram());
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * TransactionStatsMXBean.java
+ *
+ * Created on October 19, 2026, 1:10 AM
+ */
+
+package TinyTM;
+
+import java.util.Map;
+
+/**
+ * Management interface for <code>TransactionStats</code>. Every getter
+ * adds up the per-thread counters afresh.
+ */
+public interface TransactionStatsMXBean {
+  long getCommits();
+
+  long getAborts();
+
+  /**
+   * @return aborts by <code>Transaction.AbortCause</code> name
+   */
+  Map<String, Long> getAbortsByCause();
+
+  /**
+   * @return nanoseconds spent in attempts that aborted
+   */
+  long getAbortedNanos();
+
+  /**
+   * @return commits by retries before committing: 0, 1, 2-3, 4-7, ...,
+   * with everything beyond in the last bucket
+   */
+  long[] getRetriesHistogram();
+}
@@ -0,0 +1,20 @@
+/*
+ * AggressiveManager.java
+ *
+ * Created on October 19, 2026, 12:20 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.Transaction;
+
+/**
+ * Always aborts the other transaction. Cheapest when conflicts are rare,
+ * but two transactions can keep aborting each other.
+ */
+public class AggressiveManager extends ContentionManager {
+  public void resolve(Transaction me, Transaction other) {
+    long epoch = other.getEpoch();
+    other.abort(epoch);
+  }
+}
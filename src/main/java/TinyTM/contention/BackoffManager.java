@@ -16,7 +16,7 @@ import TinyTM.Transaction;
 import java.util.Random;
 
 /**
- * Simple adaptive backoff contention manager.
+ * Simple adaptive backoff contention manager. Delays are in microseconds.
  * @author Maurice Herlihy
  */
 public class BackoffManager extends ContentionManager {
@@ -24,21 +24,20 @@ public class BackoffManager extends ContentionManager {
   private static final int MAX_DELAY = 1024;
   Random random = new Random();
   Transaction rival = null;
+  long rivalEpoch;
   int delay = MIN_DELAY;
   public void resolve(Transaction me, Transaction other) {
-    if (other != rival) {
+    long epoch = other.getEpoch();
+    if (other != rival || epoch != rivalEpoch) {
       rival = other;
+      rivalEpoch = epoch;
       delay = MIN_DELAY;
     }
     if (delay < MAX_DELAY) {            // be patient
-      try {
-        Thread.sleep(random.nextInt(delay));
-      } catch (InterruptedException ex) {
-        Thread.currentThread().interrupt();
-      }
+      backoff(random.nextInt(delay) * 1000L);
       delay = 2 * delay;
     } else {                          // patience exhausted
-      other.abort();
+      other.abort(epoch);
       delay = MIN_DELAY;
     }
   }  
@@ -0,0 +1,161 @@
+/*
+ * ContentionBenchmark.java
+ *
+ * Created on October 19, 2026, 12:50 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.AtomicArray;
+import TinyTM.TThread;
+import TinyTM.Transaction;
+import TinyTM.TransactionStats;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Throughput and abort rate of each contention manager. Every transaction
+ * moves an amount between slots of two randomly chosen
+ * <code>AtomicArray</code>s, which admit one writer or many readers at a
+ * time, so fewer arrays mean more conflicts. Every thread uses its own
+ * instance of the manager under test. The report breaks aborts down by
+ * cause, from <code>TransactionStats</code>.
+ * <p>
+ * Usage: <code>ContentionBenchmark [managers] [threads] [arrays] [millis]</code>
+ * where <code>managers</code> is <code>all</code> or a comma-separated list
+ * of names.
+ */
+public class ContentionBenchmark {
+  static final int DEFAULT_ARRAYS = 8;
+  static final int DEFAULT_MILLIS = 1000;
+  static final int SLOTS = 4;
+  static final int BALANCE = 1000;
+
+  /**
+   * Manager constructors by name.
+   */
+  static final Map<String, Supplier<ContentionManager>> MANAGERS = new LinkedHashMap<>();
+  static {
+    MANAGERS.put("backoff", BackoffManager::new);
+    MANAGERS.put("aggressive", AggressiveManager::new);
+    MANAGERS.put("passive", PassiveManager::new);
+    MANAGERS.put("karma", KarmaManager::new);
+    MANAGERS.put("polka", PolkaManager::new);
+    MANAGERS.put("timestamp", TimestampManager::new);
+    MANAGERS.put("greedy", GreedyManager::new);
+  }
+
+  public static void main(String[] args) throws Exception {
+    String names = args.length > 0 ? args[0] : "all";
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int arrays = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ARRAYS;
+    int millis = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MILLIS;
+    if (arrays < 2) {
+      throw new IllegalArgumentException("need at least 2 arrays: " + arrays);
+    }
+    String[] selected = names.equals("all") ? MANAGERS.keySet().toArray(new String[0]) : names.split(",");
+    for (String name : selected) {
+      if (!MANAGERS.containsKey(name)) {
+        throw new IllegalArgumentException("unknown manager " + name + ", expected one of " + MANAGERS.keySet());
+      }
+    }
+    System.out.printf("threads %d, arrays %d, millis %d%n", threads, arrays, millis);
+    System.out.println("manager\tcommits/s\taborts %\tbalanced\taborts by cause");
+    for (String name : selected) {
+      run(MANAGERS.get(name), threads, arrays, Math.max(1, millis / 4)); // warm up
+      TransactionStats.Snapshot before = TransactionStats.snapshot();
+      long[] result = run(MANAGERS.get(name), threads, arrays, millis);
+      TransactionStats.Snapshot after = TransactionStats.snapshot();
+      double seconds = result[2] / 1e9;
+      StringBuilder causes = new StringBuilder();
+      for (Transaction.AbortCause cause : Transaction.AbortCause.values()) {
+        long count = after.getAborts(cause) - before.getAborts(cause);
+        if (count > 0) {
+          causes.append(causes.length() == 0 ? "" : " ").append(cause).append('=').append(count);
+        }
+      }
+      System.out.printf("%s\t%.0f\t%.2f\t%s\t%s%n", name, result[0] / seconds,
+          100.0 * result[1] / Math.max(1, result[0] + result[1]), result[3] == 1, causes);
+    }
+  }
+
+  /**
+   * Run the transfer workload for a while on fresh arrays.
+   * @return commits, aborts, elapsed nanoseconds, and 1 if the total
+   * balance was preserved
+   */
+  static long[] run(final Supplier<ContentionManager> manager, int threads, int arrays, int millis)
+      throws Exception {
+    @SuppressWarnings("unchecked")
+    final AtomicArray<Integer>[] accounts = (AtomicArray<Integer>[]) new AtomicArray[arrays];
+    for (int a = 0; a < arrays; a++) {
+      accounts[a] = new AtomicArray<Integer>(Integer.class, SLOTS);
+      for (int i = 0; i < SLOTS; i++) {
+        accounts[a].set(i, BALANCE);
+      }
+    }
+    final CyclicBarrier start = new CyclicBarrier(threads + 1);
+    final long[] deadline = new long[1];
+    final long[] commits = new long[threads];
+    final long[] attempts = new long[threads];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int id = t;
+      workers[t] = new Thread() {
+        public void run() {
+          ContentionManager.setLocal(manager.get());
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          final int[] move = new int[5];
+          final long[] tries = new long[1];
+          Callable<Void> transfer = () -> {
+            tries[0]++;
+            AtomicArray<Integer> from = accounts[move[0]], to = accounts[move[2]];
+            from.set(move[1], from.get(move[1]) - move[4]);
+            to.set(move[3], to.get(move[3]) + move[4]);
+            return null;
+          };
+          try {
+            start.await();
+            long count = 0;
+            while (System.nanoTime() < deadline[0]) {
+              move[0] = random.nextInt(accounts.length);
+              move[1] = random.nextInt(SLOTS);
+              move[2] = (move[0] + 1 + random.nextInt(accounts.length - 1)) % accounts.length;
+              move[3] = random.nextInt(SLOTS);
+              move[4] = random.nextInt(10);
+              TThread.doIt(transfer);
+              count++;
+            }
+            commits[id] = count;
+            attempts[id] = tries[0];
+          } catch (Exception ex) {
+            ex.printStackTrace();
+          }
+        }
+      };
+      workers[t].start();
+    }
+    deadline[0] = System.nanoTime() + millis * 1000000L;
+    start.await();
+    long begin = System.nanoTime();
+    long[] result = new long[4];
+    for (int t = 0; t < threads; t++) {
+      workers[t].join();
+      result[0] += commits[t];
+      result[1] += attempts[t] - commits[t];
+    }
+    result[2] = System.nanoTime() - begin;
+    long total = 0;
+    for (AtomicArray<Integer> account : accounts) {
+      for (int i = 0; i < SLOTS; i++) {
+        total += account.get(i);
+      }
+    }
+    result[3] = total == (long) arrays * SLOTS * BALANCE ? 1 : 0;
+    return result;
+  }
+}
@@ -14,6 +14,7 @@ package TinyTM.contention;
 
 import TinyTM.*;
 import TinyTM.exceptions.PanicException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Contention Manager Interface for TinyTM
@@ -27,6 +28,14 @@ import TinyTM.exceptions.PanicException;
  * @author Maurice Herlihy
  */
 public abstract class ContentionManager {
+  /**
+   * Waits shorter than this, in nanoseconds, spin rather than park.
+   */
+  static final long SPIN_LIMIT = 10000;
+  // conflict this thread last resolved, and how often in a row
+  private Transaction rival;
+  private long rivalEpoch;
+  private int attempts;
 
   static ThreadLocal<ContentionManager> local = new ThreadLocal<ContentionManager>() {
 
@@ -40,8 +49,78 @@ public abstract class ContentionManager {
     }
   };
 
+  /**
+   * Called when this thread's transaction finds another in its way. Either
+   * aborts one of them or waits; the caller then tries again.
+   * @param me this thread's transaction
+   * @param other conflicting transaction
+   */
   public abstract void resolve(Transaction me, Transaction other);
 
+  /**
+   * A transaction attempt is starting on this thread.
+   * @param me this thread's transaction
+   */
+  public void begin(Transaction me) {
+  }
+
+  /**
+   * This thread's transaction opened an object.
+   * @param me this thread's transaction
+   */
+  public void opened(Transaction me) {
+  }
+
+  /**
+   * This thread's transaction committed.
+   * @param me this thread's transaction
+   */
+  public void committed(Transaction me) {
+  }
+
+  /**
+   * This thread's transaction is over and will not be retried: it
+   * committed, its body threw, or the thread was interrupted. Per-transaction
+   * state kept across retries should be reset here, so that the next
+   * transaction does not inherit it.
+   */
+  public void ended() {
+  }
+
+  /**
+   * Count consecutive conflicts with the same attempt of the same
+   * transaction.
+   * @param other conflicting transaction
+   * @param epoch the attempt, read from <code>other.getEpoch()</code> when
+   * the conflict was seen
+   * @return how many times this thread resolved against that attempt before
+   */
+  protected int attempts(Transaction other, long epoch) {
+    if (other != rival || epoch != rivalEpoch) {
+      rival = other;
+      rivalEpoch = epoch;
+      attempts = 0;
+    }
+    return attempts++;
+  }
+
+  /**
+   * Wait without giving up the processor for short delays, and parking for
+   * longer ones. Unlike <code>Thread.sleep</code>, waits are as fine as
+   * the timer allows.
+   * @param nanos how long to wait
+   */
+  protected static void backoff(long nanos) {
+    if (nanos < SPIN_LIMIT) {
+      long deadline = System.nanoTime() + nanos;
+      while (System.nanoTime() < deadline) {
+        Thread.onSpinWait();
+      }
+    } else {
+      LockSupport.parkNanos(nanos);
+    }
+  }
+
   public static ContentionManager getLocal() {
     return local.get();
   }
@@ -49,4 +128,4 @@ public abstract class ContentionManager {
   public static void setLocal(ContentionManager m) {
     local.set(m);
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
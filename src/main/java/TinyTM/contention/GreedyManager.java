@@ -0,0 +1,47 @@
+/*
+ * GreedyManager.java
+ *
+ * Created on October 19, 2026, 12:40 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.Transaction;
+
+/**
+ * Greedy contention management: priority is the time the transaction first
+ * started, kept across aborts. A transaction aborts the other if the other
+ * is younger, or is itself waiting for someone; otherwise it waits for the
+ * other to finish. The oldest transaction never waits, so it always
+ * commits, and every transaction commits within a bounded number of
+ * aborts.
+ */
+public class GreedyManager extends ContentionManager {
+  // nanoseconds
+  static final long INTERVAL = 1000;
+  long start;
+  boolean retrying = false;
+
+  public void begin(Transaction me) {
+    if (!retrying) {
+      start = System.nanoTime();
+      retrying = true;
+    }
+    me.setPriority(start);
+  }
+
+  public void ended() {
+    retrying = false;
+  }
+
+  public void resolve(Transaction me, Transaction other) {
+    long epoch = other.getEpoch();
+    if (other.getPriority() > me.getPriority() || other.isWaiting()) {
+      other.abort(epoch);
+    } else {
+      me.setWaiting(true);
+      backoff(INTERVAL);
+      me.setWaiting(false);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * KarmaManager.java
+ *
+ * Created on October 19, 2026, 12:25 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.Transaction;
+
+/**
+ * Priority is karma: the number of objects the transaction has opened,
+ * kept across aborts so that a transaction that keeps losing grows
+ * stronger, and reset when it commits. A transaction backs off for a fixed
+ * interval at each conflict, and aborts the other once its karma plus the
+ * number of times it has backed off exceeds the other's karma.
+ */
+public class KarmaManager extends ContentionManager {
+  // nanoseconds
+  static final long INTERVAL = 1000;
+  long karma = 0;
+
+  public void begin(Transaction me) {
+    me.setPriority(karma);
+  }
+
+  public void opened(Transaction me) {
+    me.setPriority(++karma);
+  }
+
+  public void ended() {
+    karma = 0;
+  }
+
+  public void resolve(Transaction me, Transaction other) {
+    long epoch = other.getEpoch();
+    if (me.getPriority() + attempts(other, epoch) > other.getPriority()) {
+      other.abort(epoch);
+    } else {
+      backoff(INTERVAL);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+/*
+ * PassiveManager.java
+ *
+ * Created on October 19, 2026, 12:20 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.Transaction;
+import TinyTM.exceptions.AbortedException;
+
+/**
+ * Always aborts its own transaction, leaving the other to finish.
+ */
+public class PassiveManager extends ContentionManager {
+  public void resolve(Transaction me, Transaction other) {
+    me.abort(Transaction.AbortCause.KILLED);
+    throw new AbortedException();
+  }
+}
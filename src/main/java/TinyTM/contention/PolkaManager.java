@@ -0,0 +1,45 @@
+/*
+ * PolkaManager.java
+ *
+ * Created on October 19, 2026, 12:30 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.Transaction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Karma priorities with randomized exponential backoff. A transaction
+ * backs off once for each unit of karma the other has over it, each wait
+ * about twice as long as the last, then aborts the other.
+ */
+public class PolkaManager extends ContentionManager {
+  // nanoseconds
+  static final long MIN_DELAY = 256;
+  static final int MAX_SHIFT = 10;
+  long karma = 0;
+
+  public void begin(Transaction me) {
+    me.setPriority(karma);
+  }
+
+  public void opened(Transaction me) {
+    me.setPriority(++karma);
+  }
+
+  public void ended() {
+    karma = 0;
+  }
+
+  public void resolve(Transaction me, Transaction other) {
+    long epoch = other.getEpoch();
+    int n = attempts(other, epoch);
+    if (n >= other.getPriority() - me.getPriority()) {
+      other.abort(epoch);
+    } else {
+      long limit = MIN_DELAY << Math.min(n, MAX_SHIFT);
+      backoff(ThreadLocalRandom.current().nextLong(limit / 2, limit));
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * TimestampManager.java
+ *
+ * Created on October 19, 2026, 12:35 AM
+ */
+
+package TinyTM.contention;
+
+import TinyTM.Transaction;
+
+/**
+ * Priority is the time the transaction first started, kept across aborts.
+ * The older transaction aborts the younger. The younger waits in fixed
+ * intervals, and if the older makes no progress for <code>MAX_WAITS</code>
+ * of them, presumes it stalled and aborts it.
+ */
+public class TimestampManager extends ContentionManager {
+  // nanoseconds
+  static final long INTERVAL = 1000;
+  static final int MAX_WAITS = 64;
+  long start;
+  boolean retrying = false;
+
+  public void begin(Transaction me) {
+    if (!retrying) {
+      start = System.nanoTime();
+      retrying = true;
+    }
+    me.setPriority(start);
+  }
+
+  public void ended() {
+    retrying = false;
+  }
+
+  public void resolve(Transaction me, Transaction other) {
+    long epoch = other.getEpoch();
+    if (me.getPriority() < other.getPriority() || attempts(other, epoch) >= MAX_WAITS) {
+      other.abort(epoch);
+    } else {
+      backoff(INTERVAL);
+    }
+  }
+}
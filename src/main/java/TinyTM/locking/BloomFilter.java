@@ -22,18 +22,21 @@ import java.util.BitSet;
  */
 public class BloomFilter {
   BitSet filter;
+  // number of bits in use; BitSet.size() rounds up to whole words
+  final int size;
   private static final int LO_MASK = 0x0000FFFF;
   private static final int HI_MASK = 0xFFFF0000;
   private static final int SHIFT = 16;
   
   public BloomFilter(int size) {
     filter = new BitSet(size);
+    this.size = size;
   }
   private int hash0(Object x) {
-    return (x.hashCode() & LO_MASK) % filter.size();
+    return (x.hashCode() & LO_MASK) % size;
   }
   private int hash1(Object x) {
-    return ((x.hashCode() & HI_MASK) >> SHIFT) % filter.size();
+    return ((x.hashCode() & HI_MASK) >>> SHIFT) % size;
   }
   public void add(Object x) {
     filter.set(hash0(x));
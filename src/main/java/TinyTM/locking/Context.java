@@ -0,0 +1,50 @@
+/*
+ * Context.java
+ *
+ * Created on October 18, 2026, 11:55 PM
+ */
+
+package TinyTM.locking;
+
+import TinyTM.Transaction;
+
+/**
+ * Per-thread state of the locking STM: read set, write set, and stamps.
+ * Created once per thread and attached to its transaction descriptor, so
+ * an open costs a single thread-local lookup, and cleared rather than
+ * replaced between transactions, so a read-only transaction that commits
+ * allocates nothing.
+ */
+public final class Context {
+  static final ThreadLocal<Context> local = ThreadLocal.withInitial(Context::new);
+  final ReadSet readSet = new ReadSet();
+  final WriteSet writeSet = new WriteSet();
+  // clock value when the transaction started
+  long readStamp;
+  // clock value for the transaction's commit
+  long writeStamp;
+  // per-thread state of a clock that keeps any
+  Object clockState;
+
+  private Context() {
+  }
+
+  public static Context getLocal() {
+    return local.get();
+  }
+
+  /**
+   * Context of the given transaction, which must be this thread's.
+   * @param me this thread's transaction
+   * @return this thread's context
+   */
+  static Context of(Transaction me) {
+    Object attachment = me.attachment();
+    if (attachment instanceof Context) {
+      return (Context) attachment;
+    }
+    Context context = local.get();
+    me.attach(context);
+    return context;
+  }
+}
@@ -16,44 +16,73 @@ import TinyTM.Transaction;
 import TinyTM.Copyable;
 import TinyTM.exceptions.AbortedException;
 import TinyTM.exceptions.PanicException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Encapsulates synchronization for locking STM.
+ * Encapsulates synchronization for locking STM, in the style of TL2.
+ * <p>
+ * A single versioned lock word holds the version of the last commit that
+ * wrote this object, shifted left by one, and a lock bit. Committers take
+ * the lock with a CAS and never block. A reader reads the word, the current
+ * version, and the word again, and aborts unless the two reads agree, the
+ * object is unlocked, and its version is current for the transaction, which
+ * for most clocks means no later than its read stamp. Committed versions are never modified in place: a commit
+ * installs the writer's scratch copy as the new version, so every read
+ * sees a whole version.
+ * <p>
+ * That check makes every read of a read-only transaction consistent with
+ * its read stamp, so such a transaction logs nothing and commits without
+ * validation. A read-only transaction that opens an object for writing is
+ * promoted: it aborts and is retried read-write.
  * @param <T> type
  * @author Maurice Herlihy
  */
 public class LockObject<T extends Copyable<T>> extends AtomicObject<T> {
 
-  static final long TIMEOUT = 1000;
-  ReentrantLock lock;
-  volatile long stamp;
-  T version;
+  private static final VarHandle WORD;
+  static {
+    try {
+      WORD = MethodHandles.lookup().findVarHandle(LockObject.class, "word", long.class);
+    } catch (ReflectiveOperationException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+  static final long LOCKED = 1L;
+  // random identity hash for write-set tables and Bloom summaries
+  final int hash = ThreadLocalRandom.current().nextInt();
+  // lock attempts before a committer gives up
+  static final int SPIN = 64;
+  // version << 1 | LOCKED
+  volatile long word;
+  // thread holding the lock; only meaningful when read by that thread
+  Thread owner;
+  volatile T version;
 
   public LockObject(T init) {
     super(init);
     version = init;
-    lock = new ReentrantLock();
-    stamp = 0;
+    word = 0;
   }
 
   public T openRead() {
-    ReadSet readSet = ReadSet.getLocal();
-    switch (Transaction.getLocal().getStatus()) {
+    Transaction me = Transaction.getLocal();
+    switch (me.getStatus()) {
       case COMMITTED:
         return version;
       case ACTIVE:
-        WriteSet writeSet = WriteSet.getLocal();
-        if (writeSet.get(this) == null) {
-          if (lock.isLocked()) {
-            throw new AbortedException();
-          }
-          readSet.add(this);
-          return version;
+        Context context = Context.of(me);
+        if (me.isReadOnly()) {
+          return snapshot(context); // nothing to log or look up
+        }
+        @SuppressWarnings(value = "unchecked")
+        T scratch = (T) context.writeSet.get(this);
+        if (scratch == null) {
+          T value = snapshot(context);
+          context.readSet.add(this);
+          return value;
         } else {
-          @SuppressWarnings(value = "unchecked")
-          T scratch = (T) writeSet.get(this);
           return scratch;
         }
       case ABORTED:
@@ -64,25 +93,30 @@ public class LockObject<T extends Copyable<T>> extends AtomicObject<T> {
   }
 
   public T openWrite() {
-    switch (Transaction.getLocal().getStatus()) {
+    Transaction me = Transaction.getLocal();
+    switch (me.getStatus()) {
       case COMMITTED:
         return version;
       case ACTIVE:
-        WriteSet writeSet = WriteSet.getLocal();
+        if (me.isReadOnly()) {
+          me.promote(); // reads so far were not logged, start over
+          throw new AbortedException();
+        }
+        Context context = Context.of(me);
+        WriteSet writeSet = context.writeSet;
         @SuppressWarnings(value = "unchecked") T scratch = (T) writeSet.get(this);
         if (scratch == null) {
+          T value = snapshot(context);
           try {
-            if (lock.isLocked()) {
-              throw new AbortedException();
-            }
             scratch = myClass.newInstance();
           } catch (InstantiationException ex) {
             throw new PanicException(ex);
           } catch (IllegalAccessException ex) {
             throw new PanicException(ex);
           }
-          version.copyTo(scratch);
+          value.copyTo(scratch);
           writeSet.put(this, scratch);
+          context.readSet.add(this); // the copy was a read
         }
         return scratch;
       case ABORTED:
@@ -92,32 +126,97 @@ public class LockObject<T extends Copyable<T>> extends AtomicObject<T> {
     }
   }
 
-  public boolean tryLock(long timeout, TimeUnit timeUnit) {
-    try {
-      return lock.tryLock(timeout, timeUnit);
-    } catch (InterruptedException ex) {
-      Thread.currentThread().interrupt(); // restore interrupted state
-      return false;
+  /**
+   * Read the current version, checking the lock word before and after.
+   * @param context transaction's thread state
+   * @return version current for the transaction
+   */
+  private T snapshot(Context context) {
+    long before = word;
+    T value = version;
+    long after = word;
+    if (before != after || (before & LOCKED) != 0) {
+      Transaction.getLocal().abort(Transaction.AbortCause.VALIDATION);
+      throw new AbortedException();
     }
+    if (!VersionClock.clock.current(before >>> 1, context)) {
+      VersionClock.clock.observe(before >>> 1, context);
+      Transaction.getLocal().abort(Transaction.AbortCause.VALIDATION);
+      throw new AbortedException();
+    }
+    return value;
   }
 
+  /**
+   * Try to lock for commit, spinning briefly if another committer holds it.
+   * @return whether this thread now holds the lock
+   */
+  public boolean tryLock() {
+    for (int i = 0; i < SPIN; i++) {
+      long w = word;
+      if ((w & LOCKED) == 0) {
+        if (WORD.compareAndSet(this, w, w | LOCKED)) {
+          owner = Thread.currentThread();
+          return true;
+        }
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Install a committed scratch copy and unlock with its version. Caller
+   * holds the lock.
+   * @param scratch new version
+   * @param writeVersion commit's write stamp
+   */
+  @SuppressWarnings("unchecked")
+  void publish(Object scratch, long writeVersion) {
+    version = (T) scratch;
+    owner = null;
+    word = writeVersion << 1;
+  }
+
+  /**
+   * Unlock without changing the version, if this thread holds the lock.
+   */
   public void unlock() {
-    lock.unlock();
+    if (owner == Thread.currentThread()) {
+      owner = null;
+      word = word & ~LOCKED;
+    }
   }
 
   public boolean validate() {
-    Transaction.Status status = Transaction.getLocal().getStatus();
+    Transaction me = Transaction.getLocal();
+    Transaction.Status status = me.getStatus();
     switch (status) {
       case COMMITTED:
         return true;
       case ACTIVE:
-        boolean free = !lock.isLocked() || lock.isHeldByCurrentThread();
-        boolean pure = stamp <= VersionClock.getReadStamp();
-        return free & pure;
+        return validate(Context.of(me));
       case ABORTED:
         return false;
       default:
         throw new PanicException("Unexpected transaction state:" + status);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Is this object unlocked, or locked by this thread, and its version
+   * still current for the transaction?
+   * @param context transaction's thread state
+   * @return whether the transaction's read of this object still holds
+   */
+  boolean validate(Context context) {
+    long w = word;
+    boolean free = (w & LOCKED) == 0 || owner == Thread.currentThread();
+    boolean pure = VersionClock.clock.current(w >>> 1, context);
+    if (!pure) {
+      VersionClock.clock.observe(w >>> 1, context);
+    }
+    return free & pure;
+  }
+}
@@ -12,16 +12,19 @@
 
 package TinyTM.locking;
 
+import TinyTM.Transaction;
+
 /**
- * Handler for transaction abort.
+ * Handler for transaction abort. Releases any locks taken for a commit
+ * that failed validation.
  * @author Maurice Herlihy
  */
 public class OnAbort implements Runnable {
   public void run() {
-    WriteSet writeSet = WriteSet.getLocal();
-    ReadSet readSet  = ReadSet.getLocal();
-    VersionClock.setReadStamp();
-    writeSet.clear();
-    readSet.clear();
+    Context context = Context.of(Transaction.getLocal());
+    context.readStamp = VersionClock.clock.read();
+    context.writeSet.unlock();
+    context.writeSet.clear();
+    context.readSet.clear();
   }
 }
@@ -12,31 +12,22 @@
 
 package TinyTM.locking;
 
-import TinyTM.Copyable;
-import java.util.Map;
+import TinyTM.Transaction;
 
 /**
- * Handler for transaction commit.
+ * Handler for transaction commit. Installs each scratch copy as its
+ * object's new version and unlocks it with the write stamp.
  * @author Maurice Herlihy
  */
 public class OnCommit implements Runnable {
-  @SuppressWarnings("unchecked")
   public void run() {
-    WriteSet writeSet = WriteSet.getLocal();
-    ReadSet readSet  = ReadSet.getLocal();
-    VersionClock.setWriteStamp();
-    long writeVersion = VersionClock.getWriteStamp();
-    for (Map.Entry<LockObject<?>, Object> entry : writeSet) {
-      @SuppressWarnings("unchecked")
-      LockObject<?> key = (LockObject<?>) entry.getKey();
-      Copyable destin = (Copyable) key.openRead();
-      Copyable source = (Copyable) entry.getValue();
-      source.copyTo(destin);
-      key.stamp = writeVersion;
+    Context context = Context.of(Transaction.getLocal());
+    WriteSet writeSet = context.writeSet;
+    if (!writeSet.isEmpty()) {
+      writeSet.publish(context.writeStamp);
+      writeSet.clear();
     }
-    writeSet.unlock();
-    writeSet.clear();
-    readSet.clear();
+    context.readSet.clear();
   }
   
 }
@@ -12,13 +12,16 @@
 
 package TinyTM.locking;
 
+import TinyTM.Transaction;
+
 /**
  * Handler for transaction start.
  * @author Maurice Herlihy
  */
 public class OnStart implements Runnable {
   public void run() {
-    VersionClock.setReadStamp();
+    Context context = Context.of(Transaction.getLocal());
+    context.readStamp = VersionClock.clock.read();
   }
   
 }
@@ -12,26 +12,36 @@
 
 package TinyTM.locking;
 
+import TinyTM.Transaction;
 import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Call this code when a transaction must decide whether it can commit.
+ * Locks the write set, takes a write stamp, then validates the read set.
+ * If validation fails the locks stay held until <code>OnAbort</code>.
  * @author Maurice Herlihy
  */
 public class OnValidate implements Callable<Boolean>{
-  private static final long TIMEOUT = 1024;
   
   public Boolean call() throws Exception {
-    WriteSet writeSet = WriteSet.getLocal();
-    ReadSet readSet  = ReadSet.getLocal();
-    if (!writeSet.tryLock(TIMEOUT, TimeUnit.MILLISECONDS)) {
+    Transaction me = Transaction.getLocal();
+    Context context = Context.of(me);
+    WriteSet writeSet = context.writeSet;
+    ReadSet readSet  = context.readSet;
+    if (writeSet.isEmpty()) {
+      return true; // every read was validated when it was made
+    }
+    if (!writeSet.tryLock()) {
+      me.abort(Transaction.AbortCause.LOCK_TIMEOUT);
       return false;
     }
-    for (LockObject x : readSet) {
-      if (x.lock.isLocked() && !x.lock.isHeldByCurrentThread())
-        return false;
-      if (!x.validate()) {
+    context.writeStamp = VersionClock.clock.tick(context);
+    if (VersionClock.unchanged(context)) {
+      return true; // nobody committed since we started
+    }
+    for (int i = 0; i < readSet.size(); i++) {
+      if (!readSet.get(i).validate(context)) {
+        me.abort(Transaction.AbortCause.VALIDATION);
         return false;
       }
     }
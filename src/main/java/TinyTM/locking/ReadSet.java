@@ -12,37 +12,57 @@
 
 package TinyTM.locking;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 /**
  * A thread-local read set for the atomic locking object implementation.
+ * Objects are kept in an array that is reused from one transaction to the
+ * next. An object read twice is recorded twice, which costs a second
+ * validation but no hashing.
  * @author Maurice Herlihy
  */
 public class ReadSet implements Iterable <LockObject<?>> {
-  static ThreadLocal<Set<LockObject<?>>> local = new ThreadLocal<Set<LockObject<?>>>() {
-    protected Set<LockObject<?>> initialValue() {
-      return new HashSet<LockObject<?>>();
-    }
-  };
+  static final int INITIAL_SIZE = 64;
   
-  Set<LockObject<?>> set;
+  LockObject<?>[] objects = new LockObject<?>[INITIAL_SIZE];
+  int size;
   
-  private ReadSet() {
-    set = local.get();
+  ReadSet() {
   }
   public static ReadSet getLocal() {
-    return new ReadSet();
+    return Context.getLocal().readSet;
   }
   
   public Iterator<LockObject<?>> iterator() {
-    return set.iterator();
+    return new Iterator<LockObject<?>>() {
+      int i = 0;
+      public boolean hasNext() {
+        return i < size;
+      }
+      public LockObject<?> next() {
+        if (i >= size) {
+          throw new NoSuchElementException();
+        }
+        return objects[i++];
+      }
+    };
   }
   public void add(LockObject<?> x) {
-    set.add(x);
+    if (size == objects.length) {
+      objects = Arrays.copyOf(objects, 2 * size);
+    }
+    objects[size++] = x;
+  }
+  public int size() {
+    return size;
+  }
+  public LockObject<?> get(int i) {
+    return objects[i];
   }
   public void clear() {
-    set.clear();
+    Arrays.fill(objects, 0, size, null);
+    size = 0;
   }
 }
@@ -12,34 +12,244 @@
 
 package TinyTM.locking;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * Combines global and thread-local timestamps.
+ * Combines global and thread-local timestamps. How the global clock
+ * advances is up to a pluggable <code>Clock</code>; choose one with
+ * <code>setClock</code> before any transaction runs.
  * @author Maurice Herlihy
  */
 public class VersionClock {
   // global clock read and advanced by all
-  static AtomicLong global = new AtomicLong();
-  // thread-local cached copy of global clock
-  static ThreadLocal<Long> local = new ThreadLocal<Long>() {
-    @Override
-    protected Long initialValue() {
-      return 0L;
-    }
-  };
+  static volatile Clock clock = new GV1();
+  // thread-local stamps live in each thread's Context
   
+  public static void setClock(Clock newClock) {
+    clock = newClock;
+  }
+  public static Clock getClock() {
+    return clock;
+  }
   public static void setReadStamp() {
-    local.set(global.get());
+    Context.getLocal().readStamp = clock.read();
   }
   public static long getReadStamp() {
-    return local.get();
+    return Context.getLocal().readStamp;
   }
   public static void setWriteStamp() {
-    local.set(global.incrementAndGet());
+    Context context = Context.getLocal();
+    context.writeStamp = clock.tick(context);
   }
   public static long getWriteStamp() {
-    return local.get();
+    return Context.getLocal().writeStamp;
+  }
+  /**
+   * Can no other transaction have committed between this thread's read and
+   * write stamps? If so, its reads need no validation.
+   * @return whether validation can be skipped
+   */
+  public static boolean unchanged() {
+    return unchanged(Context.getLocal());
+  }
+  static boolean unchanged(Context context) {
+    return clock.unique() && context.writeStamp == context.readStamp + 1;
+  }
+  /**
+   * Report a version that is not current for this thread's transaction.
+   * @param version version seen
+   */
+  public static void observe(long version) {
+    clock.observe(version, Context.getLocal());
+  }
+
+  /**
+   * Source of read and write stamps. A write stamp must exceed the read
+   * stamp of every transaction that started before the writer locked its
+   * write set.
+   */
+  public interface Clock {
+    /**
+     * @return read stamp for a starting transaction
+     */
+    long read();
+    /**
+     * @param context committing thread's state
+     * @return write stamp for a transaction that holds its write locks
+     */
+    long tick(Context context);
+    /**
+     * @return whether no two commits ever share a write stamp
+     */
+    default boolean unique() {
+      return false;
+    }
+    /**
+     * Could a transaction have read this version as of its start? By
+     * default, when the version is no later than its read stamp.
+     * @param version version of a committed object
+     * @param context reading thread's state
+     * @return whether the version is consistent with the transaction
+     */
+    default boolean current(long version, Context context) {
+      return version <= context.readStamp;
+    }
+    /**
+     * A reader saw a version that is not current, and is about to abort.
+     * @param version version seen
+     * @param context reading thread's state
+     */
+    default void observe(long version, Context context) {
+    }
+  }
+
+  /**
+   * Every commit increments one shared counter.
+   */
+  public static class GV1 implements Clock {
+    final AtomicLong global = new AtomicLong();
+    public long read() {
+      return global.get();
+    }
+    public long tick(Context context) {
+      return global.incrementAndGet();
+    }
+    public boolean unique() {
+      return true;
+    }
+  }
+
+  /**
+   * Pass on failure: a committer tries once to increment the counter, and
+   * if another committer got there first it shares that one's stamp rather
+   * than retrying. Cuts CAS traffic under contention, at the price of
+   * always validating the read set.
+   */
+  public static class GV4 implements Clock {
+    final AtomicLong global = new AtomicLong();
+    public long read() {
+      return global.get();
+    }
+    public long tick(Context context) {
+      long v = global.get();
+      long witness = global.compareAndExchange(v, v + 1);
+      return witness == v ? v + 1 : witness;
+    }
+  }
+
+  /**
+   * Committers never write the counter: they stamp with one past its
+   * current value. Readers that meet such a stamp abort and advance the
+   * counter to it. Commits cause no clock traffic at all, but readers abort
+   * more often right after a commit.
+   */
+  public static class GV5 implements Clock {
+    final AtomicLong global = new AtomicLong();
+    public long read() {
+      return global.get();
+    }
+    public long tick(Context context) {
+      return global.get() + 1;
+    }
+    public void observe(long version, Context context) {
+      long v = global.get();
+      while (v < version && !global.compareAndSet(v, version)) {
+        v = global.get();
+      }
+    }
+  }
+
+  /**
+   * Stamps from <code>System.nanoTime</code>, so no shared counter at all.
+   * Relies on the timer being monotonic across threads, as it is on
+   * hardware with an invariant time-stamp counter.
+   */
+  public static class NanoClock implements Clock {
+    final long base = System.nanoTime() - 1;
+    public long read() {
+      return System.nanoTime() - base;
+    }
+    public long tick(Context context) {
+      // one past a time read after locking, so above every earlier read stamp
+      return System.nanoTime() - base + 1;
+    }
+  }
+
+  /**
+   * Per-thread deferred clock, after TLC: each thread stamps its commits
+   * from a counter of its own, so committing never writes shared clock
+   * state, and a stamp names the counter it came from. Each thread keeps
+   * the latest count it has seen from every counter, and a version is
+   * current if its count is no later than that. A reader that meets a later
+   * one aborts and catches up to it, so the first read of another thread's
+   * newer commit always costs an abort. Read stamps are not used.
+   * <p>
+   * This is sound because a committer locks its write set before taking a
+   * count: by the time any thread has seen a count, every commit with that
+   * count or an earlier one from the same counter has locked its objects.
+   * That also holds when more than <code>COUNTERS</code> threads share
+   * counters.
+   */
+  public static class DeferredClock implements Clock {
+    static final int COUNTER_BITS = 6;
+    static final int COUNTERS = 1 << COUNTER_BITS;
+    // stamp = counter << COUNT_BITS | count, with room for the lock bit
+    static final int COUNT_BITS = 62 - COUNTER_BITS;
+    static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    // counters a cache line apart
+    static final int PAD = 8;
+    final AtomicLongArray counters = new AtomicLongArray(COUNTERS * PAD);
+    final AtomicInteger nextCounter = new AtomicInteger();
+
+    public long read() {
+      return 0;
+    }
+    public long tick(Context context) {
+      View view = view(context);
+      long count = counters.incrementAndGet(view.counter * PAD);
+      if (view.seen[view.counter] == count - 1) {
+        // no other thread took a count since this one's last commit, so it
+        // can see its own writes without aborting
+        view.seen[view.counter] = count;
+      }
+      return ((long) view.counter << COUNT_BITS) | count;
+    }
+    public boolean current(long version, Context context) {
+      return (version & COUNT_MASK) <= view(context).seen[(int) (version >>> COUNT_BITS)];
+    }
+    public void observe(long version, Context context) {
+      long[] seen = view(context).seen;
+      int counter = (int) (version >>> COUNT_BITS);
+      seen[counter] = Math.max(seen[counter], version & COUNT_MASK);
+    }
+    /**
+     * This thread's view of this clock, created on first use.
+     */
+    private View view(Context context) {
+      Object state = context.clockState;
+      if (state instanceof View && ((View) state).clock == this) {
+        return (View) state;
+      }
+      View view = new View(this, nextCounter.getAndIncrement() & (COUNTERS - 1));
+      context.clockState = view;
+      return view;
+    }
+
+    /**
+     * One thread's counter, and the latest count it has seen from each.
+     */
+    static final class View {
+      final DeferredClock clock;
+      final int counter;
+      final long[] seen = new long[COUNTERS];
+
+      View(DeferredClock clock, int counter) {
+        this.clock = clock;
+        this.counter = counter;
+      }
+    }
   }
   
 }
@@ -0,0 +1,150 @@
+/*
+ * VersionClockBenchmark.java
+ *
+ * Created on October 18, 2026, 11:40 PM
+ */
+
+package TinyTM.locking;
+
+import TinyTM.Copyable;
+import TinyTM.TThread;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Supplier;
+
+/**
+ * Commit throughput of each <code>VersionClock.Clock</code> as threads are
+ * added. Every transaction reads a few shared objects that nobody writes and
+ * increments a counter private to its thread, so transactions never
+ * conflict and the version clock is the only shared object written.
+ * <p>
+ * Usage: <code>VersionClockBenchmark [clocks] [threads] [reads] [millis]</code>
+ * where <code>clocks</code> is <code>all</code> or a comma-separated list of
+ * names, and <code>threads</code> is the largest thread count; the benchmark
+ * runs with 1, 2, 4, ... up to that many.
+ */
+public class VersionClockBenchmark {
+  static final int DEFAULT_READS = 4;
+  static final int DEFAULT_MILLIS = 1000;
+
+  /**
+   * Clock constructors by name.
+   */
+  static final Map<String, Supplier<VersionClock.Clock>> CLOCKS = new LinkedHashMap<>();
+  static {
+    CLOCKS.put("gv1", VersionClock.GV1::new);
+    CLOCKS.put("gv4", VersionClock.GV4::new);
+    CLOCKS.put("gv5", VersionClock.GV5::new);
+    CLOCKS.put("nano", VersionClock.NanoClock::new);
+    CLOCKS.put("deferred", VersionClock.DeferredClock::new);
+  }
+
+  public static void main(String[] args) throws Exception {
+    String names = args.length > 0 ? args[0] : "all";
+    int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int reads = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_READS;
+    int millis = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MILLIS;
+    String[] selected = names.equals("all") ? CLOCKS.keySet().toArray(new String[0]) : names.split(",");
+    for (String name : selected) {
+      if (!CLOCKS.containsKey(name)) {
+        throw new IllegalArgumentException("unknown clock " + name + ", expected one of " + CLOCKS.keySet());
+      }
+    }
+    TThread.onStart(new OnStart());
+    TThread.onValidate(new OnValidate());
+    TThread.onCommit(new OnCommit());
+    TThread.onAbort(new OnAbort());
+    System.out.printf("reads %d, millis %d%n", reads, millis);
+    System.out.println("clock\tthreads\tMcommits/s\taborts %");
+    for (String name : selected) {
+      for (int threads = 1; threads <= maxThreads; threads *= 2) {
+        VersionClock.setClock(CLOCKS.get(name).get());
+        run(threads, reads, Math.max(1, millis / 4)); // warm up
+        long[] result = run(threads, reads, millis);
+        double seconds = result[2] / 1e9;
+        System.out.printf("%s\t%d\t%.3f\t%.2f%n", name, threads, result[0] / seconds / 1e6,
+            100.0 * result[1] / Math.max(1, result[0] + result[1]));
+      }
+    }
+  }
+
+  /**
+   * Run the workload for a while on a fresh set of objects.
+   * @return commits, aborts, and elapsed nanoseconds
+   */
+  static long[] run(int threads, int reads, int millis) throws Exception {
+    final LockObject<Counter>[] shared = newObjects(reads);
+    final LockObject<Counter>[] own = newObjects(threads);
+    final CyclicBarrier start = new CyclicBarrier(threads + 1);
+    final long[] deadline = new long[1];
+    final long[] commits = new long[threads];
+    final long[] attempts = new long[threads];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int id = t;
+      workers[t] = new Thread() {
+        public void run() {
+          final long[] tries = new long[1];
+          Callable<Long> xaction = () -> {
+            tries[0]++;
+            long sum = 0;
+            for (LockObject<Counter> object : shared) {
+              sum += object.openRead().value;
+            }
+            own[id].openWrite().value++;
+            return sum;
+          };
+          try {
+            start.await();
+            long count = 0;
+            while (System.nanoTime() < deadline[0]) {
+              TThread.doIt(xaction);
+              count++;
+            }
+            commits[id] = count;
+            attempts[id] = tries[0];
+          } catch (Exception ex) {
+            ex.printStackTrace();
+          }
+        }
+      };
+      workers[t].start();
+    }
+    deadline[0] = System.nanoTime() + millis * 1000000L;
+    start.await();
+    long begin = System.nanoTime();
+    long[] result = new long[3];
+    for (int t = 0; t < threads; t++) {
+      workers[t].join();
+      result[0] += commits[t];
+      result[1] += attempts[t] - commits[t];
+    }
+    result[2] = System.nanoTime() - begin;
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  static LockObject<Counter>[] newObjects(int n) {
+    LockObject<Counter>[] objects = (LockObject<Counter>[]) new LockObject[n];
+    for (int i = 0; i < n; i++) {
+      objects[i] = new LockObject<Counter>(new Counter());
+    }
+    return objects;
+  }
+
+  /**
+   * Transactional counter.
+   */
+  public static class Counter implements Copyable<Counter> {
+    public long value;
+
+    public Counter() {
+    }
+
+    public void copyTo(Counter target) {
+      target.value = value;
+    }
+  }
+}
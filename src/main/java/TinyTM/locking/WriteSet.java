@@ -12,61 +12,165 @@
 
 package TinyTM.locking;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Stack;
-import java.util.concurrent.TimeUnit;
+import java.util.NoSuchElementException;
 
 /**
  * A thread-local write set for the atomic locking BaseObject implementation.
+ * <p>
+ * Objects and their scratch copies are kept in insertion order, and found
+ * through an identity table with linear probing, indexed by each object's
+ * random <code>hash</code>. A 64-bit Bloom summary with two bits per
+ * object answers most lookups for objects not written, which is every
+ * <code>openRead</code> of an object this transaction did not write, with
+ * one bit test. Everything is reused from one transaction to the next.
  * @author Maurice Herlihy
  */
 public class WriteSet implements Iterable <Map.Entry<LockObject<?>, Object>> {
-  static ThreadLocal<Map<LockObject<?>, Object>> local
-      = new ThreadLocal<Map<LockObject<?>, Object>>() {
-    @Override
-    protected Map<LockObject<?>, Object> initialValue() {
-      return new HashMap<LockObject<?>, Object>();
-    }
-  };
+  static final int INITIAL_SIZE = 16;
   
-  Map<LockObject<?>, Object> map;
+  LockObject<?>[] objects = new LockObject<?>[INITIAL_SIZE];
+  Object[] copies = new Object[INITIAL_SIZE];
+  int size;
+  // index + 1 into objects, or 0 if free; at most half full
+  int[] table = new int[2 * INITIAL_SIZE];
+  // union of bits(hash) over all objects
+  long summary;
   
   public static WriteSet getLocal() {
-    return new WriteSet();
+    return Context.getLocal().writeSet;
   }
   
-  private WriteSet() {
-    map = local.get();
+  WriteSet() {
   }
   public Iterator<Map.Entry<LockObject<?>, Object>> iterator() {
-    return map.entrySet().iterator();
+    return new Iterator<Map.Entry<LockObject<?>, Object>>() {
+      int i = 0;
+      public boolean hasNext() {
+        return i < size;
+      }
+      public Map.Entry<LockObject<?>, Object> next() {
+        if (i >= size) {
+          throw new NoSuchElementException();
+        }
+        Map.Entry<LockObject<?>, Object> entry
+            = new AbstractMap.SimpleImmutableEntry<LockObject<?>, Object>(objects[i], copies[i]);
+        i++;
+        return entry;
+      }
+    };
   }
+  /**
+   * Release whichever of these objects this thread has locked.
+   */
   public void unlock() {
-    for (LockObject<?> x : map.keySet()) {
-      x.unlock();
+    for (int i = 0; i < size; i++) {
+      objects[i].unlock();
     }
   }
-  public boolean tryLock(long timeout, TimeUnit timeUnit) {
-    Stack<LockObject<?>> stack = new Stack<LockObject<?>>();
-    for (LockObject<?> x : map.keySet()) {
-      if (!x.tryLock(timeout, timeUnit)) {
-        for (LockObject<?> y : stack) {
-          y.unlock();
-        }
+  /**
+   * Lock every object, or none.
+   * @return whether all are now locked by this thread
+   */
+  public boolean tryLock() {
+    for (int i = 0; i < size; i++) {
+      if (!objects[i].tryLock()) {
+        unlock();
         return false;
       }
     }
     return true;
   }
+  /**
+   * Install every scratch copy and unlock. Caller holds all the locks.
+   * @param writeVersion commit's write stamp
+   */
+  void publish(long writeVersion) {
+    for (int i = 0; i < size; i++) {
+      objects[i].publish(copies[i], writeVersion);
+    }
+  }
   public Object get(LockObject<?> key) {
-      return map.get(key);
+    long bits = bits(key.hash);
+    if ((summary & bits) != bits) {
+      return null; // certainly not written
+    }
+    int mask = table.length - 1;
+    for (int slot = key.hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+      int i = table[slot] - 1;
+      if (objects[i] == key) {
+        return copies[i];
+      }
+    }
+    return null;
   }
   public void put(LockObject<?> key, Object value) {
-      map.put(key, value);
+    int mask = table.length - 1;
+    int slot = key.hash & mask;
+    for (; table[slot] != 0; slot = (slot + 1) & mask) {
+      int i = table[slot] - 1;
+      if (objects[i] == key) {
+        copies[i] = value;
+        return;
+      }
+    }
+    if (size == objects.length) {
+      resize();
+      put(key, value);
+      return;
+    }
+    objects[size] = key;
+    copies[size] = value;
+    table[slot] = ++size;
+    summary |= bits(key.hash);
+  }
+  public int size() {
+    return size;
+  }
+  public boolean isEmpty() {
+    return size == 0;
   }
   public void clear() {
-    map.clear();
+    if (size == 0) {
+      return;
+    }
+    int mask = table.length - 1;
+    for (int i = 0; i < size; i++) {
+      // earlier entries' slots are already zero, so probe past zeros
+      int slot = objects[i].hash & mask;
+      while (table[slot] != i + 1) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = 0;
+    }
+    Arrays.fill(objects, 0, size, null);
+    Arrays.fill(copies, 0, size, null);
+    size = 0;
+    summary = 0;
+  }
+  /**
+   * Double capacity and rehash.
+   */
+  private void resize() {
+    objects = Arrays.copyOf(objects, 2 * objects.length);
+    copies = Arrays.copyOf(copies, 2 * copies.length);
+    table = new int[2 * objects.length];
+    int mask = table.length - 1;
+    for (int i = 0; i < size; i++) {
+      int slot = objects[i].hash & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+  }
+  /**
+   * Two Bloom bits, from hash bits the table index does not use first.
+   */
+  private static long bits(int hash) {
+    return (1L << (hash >>> 26)) | (1L << ((hash >>> 20) & 63));
   }
 }
@@ -10,18 +10,78 @@
 
 package hash;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lists.ConcurrentSet;
 
 /**
  * Simple fine-grained hash map.
  * @param T item type
  * @author Maurice Herlihy
  */
-public abstract class BaseHashSet<T> {
-  protected List<T>[] table;
+public abstract class BaseHashSet<T> implements ConcurrentSet<T>, Iterable<T> {
+  /**
+   * Marks an old bucket whose items have been moved to the new table.
+   */
+  protected static final List MOVED = new ArrayList(0);
+  /**
+   * Old buckets each operation drains from its stripe, besides its own.
+   */
+  protected static final int MIGRATE_STEP = 2;
+  /**
+   * Ordered access to bucket references, for readers that take no lock.
+   */
+  private static final VarHandle BUCKET = MethodHandles.arrayElementVarHandle(List[].class);
+  protected volatile List<T>[] table;
   protected int size;
+  /**
+   * Resize the table incrementally instead of rehashing it all at once.
+   */
+  protected boolean incremental;
+  /**
+   * While an incremental resize is in progress, the table being drained into
+   * <code>table</code>, otherwise <code>null</code>. Old bucket
+   * <code>j</code> splits into new buckets <code>j</code> and
+   * <code>j + oldTable.length</code>, both guarded by the same lock.
+   */
+  protected volatile List<T>[] oldTable;
+  /**
+   * Next old bucket to drain, per stripe. Stripe <code>s</code> owns the old
+   * buckets <code>s, s + cursor.length, ...</code>, and its cursor is guarded
+   * by that stripe's lock.
+   */
+  protected int[] cursor;
+  /**
+   * Number of stripes not yet completely drained.
+   */
+  protected final AtomicInteger pending = new AtomicInteger();
+  /**
+   * If true, <code>contains</code> takes no lock. Writers then never change
+   * a bucket in place, they publish a modified copy instead.
+   */
+  protected boolean lockFreeReads;
+  /**
+   * Maps items to hash codes.
+   */
+  protected final HashStrategy strategy;
   public BaseHashSet(int capacity) {
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  public BaseHashSet(int capacity, HashStrategy strategy) {
+    this.strategy = strategy;
     size = 0;
     table = (List<T>[]) new List[capacity];
     for (int i = 0; i < capacity; i++) {
@@ -34,10 +94,12 @@ public abstract class BaseHashSet<T> {
    * @return <code>true</code> iff item present
    */
   public boolean contains(T x) {
+    if (lockFreeReads) {
+      return read(x);
+    }
     acquire(x);
     try {
-      int myBucket = Math.abs(x.hashCode() % table.length);
-      return table[myBucket].contains(x);
+      return bucket(x).contains(x);
     } finally {
       release(x);
     }
@@ -51,9 +113,7 @@ public abstract class BaseHashSet<T> {
     boolean result = false;
     acquire(x);
     try {
-      int myBucket = Math.abs(x.hashCode() % table.length);
-      result = table[myBucket].add(x);
-      size = result ? size + 1 : size;
+      result = insert(x);
     } finally {
       release(x); // always unlock
     }
@@ -69,15 +129,410 @@ public abstract class BaseHashSet<T> {
   public boolean remove(T x) {
     acquire(x);
     try {
-      int myBucket = Math.abs(x.hashCode() % table.length);
-      boolean result = table[myBucket].remove(x);
-      size = result ? size - 1 : size;
-      return result;
+      return delete(x);
     } finally {
       release(x); // always unlock
     }
   }
-  
+  /**
+   * Add every item, taking each lock once per batch rather than once per
+   * item, and checking the resize policy only at the end.
+   * @param items items to add
+   * @return <code>true</code> iff set changed
+   */
+  public boolean addAll(Collection<? extends T> items) {
+    boolean result = forEachByStripe(items, this::insert) > 0;
+    if (incremental) {
+      if (policy())
+        resize();
+    } else {
+      while (policy()) // a large batch may overshoot by several doublings
+        resize();
+    }
+    return result;
+  }
+  /**
+   * Remove every item, taking each lock once per batch.
+   * @param items items to remove
+   * @return <code>true</code> iff set changed
+   */
+  public boolean removeAll(Collection<? extends T> items) {
+    return forEachByStripe(items, this::delete) > 0;
+  }
+  /**
+   * Are all items in set? Takes each lock once per batch, or none if reads
+   * are lock-free.
+   * @param items items to test
+   * @return <code>true</code> iff every item present
+   */
+  public boolean containsAll(Collection<? extends T> items) {
+    if (lockFreeReads) {
+      for (T x : items) {
+        if (!read(x)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return forEachByStripe(items, x -> bucket(x).contains(x)) == items.size();
+  }
+  /**
+   * Weakly-consistent iterator: returns every item present for the whole
+   * iteration exactly once, and may or may not return items added or
+   * removed meanwhile. Never throws ConcurrentModificationException.
+   * @return iterator over items
+   */
+  public Iterator<T> iterator() {
+    return Spliterators.iterator(spliterator());
+  }
+  /**
+   * Weakly-consistent spliterator that splits by bucket range.
+   * @return spliterator over items
+   */
+  public Spliterator<T> spliterator() {
+    return new BucketSpliterator(0, table.length, table.length);
+  }
+  /**
+   * @return sequential stream over items
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+  /**
+   * @return parallel stream over items
+   */
+  public Stream<T> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+  /**
+   * Exclude writers from a bucket while it is copied for iteration. Only
+   * called on sets without lock-free reads, whose writers change buckets in
+   * place.
+   * @param j bucket index
+   */
+  protected void acquireBucket(int j) {
+    throw new UnsupportedOperationException();
+  }
+  /**
+   * Undo <code>acquireBucket</code>.
+   * @param j bucket index
+   */
+  protected void releaseBucket(int j) {
+    throw new UnsupportedOperationException();
+  }
+  /**
+   * Number of locks items are spread over, so that a batch can be grouped
+   * by lock. Only meaningful while holding some item's lock.
+   * @return number of stripes
+   */
+  protected int stripes() {
+    return 1;
+  }
+  /**
+   * Add item, caller holds its lock.
+   */
+  private boolean insert(T x) {
+    boolean result;
+    List<T> bucket = bucket(x);
+    if (bucket.contains(x)) {
+      result = false;
+    } else if (lockFreeReads) {
+      List<T> copy = new ArrayList<T>(bucket.size() + 1);
+      copy.addAll(bucket);
+      copy.add(x);
+      publish(table, Math.abs(hash(x) % table.length), copy);
+      result = true;
+    } else {
+      result = bucket.add(x);
+    }
+    size = result ? size + 1 : size;
+    return result;
+  }
+  /**
+   * Remove item, caller holds its lock.
+   */
+  private boolean delete(T x) {
+    List<T> bucket = bucket(x);
+    boolean result;
+    if (lockFreeReads) {
+      result = bucket.contains(x);
+      if (result) {
+        List<T> copy = new ArrayList<T>(bucket);
+        copy.remove(x);
+        publish(table, Math.abs(hash(x) % table.length), copy);
+      }
+    } else {
+      result = bucket.remove(x);
+    }
+    size = result ? size - 1 : size;
+    return result;
+  }
+  /**
+   * Apply an operation to every item, items that share a lock together
+   * under a single acquire. If the lock array was refined since items were
+   * grouped, items that no longer share the group's lock are applied one by
+   * one afterwards.
+   * @return number of items for which the operation returned true
+   */
+  private int forEachByStripe(Collection<? extends T> items, Predicate<T> op) {
+    T[] xs = (T[]) items.toArray();
+    int stripes = stripes();
+    long[] order = new long[xs.length]; // stripe in high word, index in low word
+    for (int i = 0; i < xs.length; i++) {
+      order[i] = ((long) Math.abs(hash(xs[i]) % stripes) << 32) | i;
+    }
+    Arrays.sort(order);
+    int count = 0;
+    List<T> leftover = new ArrayList<T>();
+    for (int i = 0, end; i < xs.length; i = end) {
+      for (end = i + 1; end < xs.length && (order[end] >>> 32) == (order[i] >>> 32); end++) {}
+      T first = xs[(int) order[i]];
+      acquire(first);
+      try {
+        int now = stripes();
+        int stripe = Math.abs(hash(first) % now);
+        for (int k = i; k < end; k++) {
+          T x = xs[(int) order[k]];
+          if (now == stripes || Math.abs(hash(x) % now) == stripe) {
+            count += op.test(x) ? 1 : 0;
+          } else {
+            leftover.add(x);
+          }
+        }
+      } finally {
+        release(first);
+      }
+    }
+    for (T x : leftover) {
+      acquire(x);
+      try {
+        count += op.test(x) ? 1 : 0;
+      } finally {
+        release(x);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Bucket for item, called while holding the item's lock. During an
+   * incremental resize, first drains the item's old bucket and a few more
+   * from the same stripe.
+   * @param x item involved
+   * @return bucket that should hold item
+   */
+  protected List<T> bucket(T x) {
+    List<T>[] old = oldTable;
+    if (old != null) {
+      int j = Math.abs(hash(x) % old.length);
+      drain(old, j);
+      drainStripe(old, j % cursor.length, MIGRATE_STEP);
+    }
+    int myBucket = Math.abs(hash(x) % table.length);
+    List<T> bucket = table[myBucket];
+    if (bucket == null) { // new buckets are allocated lazily
+      bucket = new ArrayList<T>();
+      publish(table, myBucket, bucket);
+    }
+    return bucket;
+  }
+  /**
+   * Lock-free membership test. A bucket is read from the current table, or
+   * from the old table if an incremental resize has not drained it yet.
+   * Buckets are never changed once published, so the test needs no lock.
+   * @param x item to test
+   * @return <code>true</code> iff item present
+   */
+  protected boolean read(T x) {
+    int h = hash(x);
+    while (true) {
+      List<T>[] current = table;
+      List<T> bucket = (List<T>) BUCKET.getAcquire(current, Math.abs(h % current.length));
+      if (bucket == MOVED) {
+        continue;               // current became an old table, reread
+      } else if (bucket != null) {
+        return bucket.contains(x);
+      }
+      List<T>[] old = oldTable; // bucket not yet drained, or empty
+      if (old == null) {
+        if (BUCKET.getAcquire(current, Math.abs(h % current.length)) == null) {
+          return false;
+        }
+        continue;               // drained meanwhile
+      }
+      List<T> oldBucket = (List<T>) BUCKET.getAcquire(old, Math.abs(h % old.length));
+      if (oldBucket != MOVED) {
+        return oldBucket != null && oldBucket.contains(x);
+      }
+    }
+  }
+  /**
+   * Hash code of item under this set's strategy.
+   * @param x item to hash
+   * @return hash code
+   */
+  protected int hash(T x) {
+    return strategy.hash(x);
+  }
+  /**
+   * Items whose hash is <code>j</code> modulo <code>n</code>, where
+   * <code>n</code> is the length of this or any earlier table. Items never
+   * leave that class of buckets, so every item present throughout is
+   * gathered by exactly one call.
+   */
+  private List<T> gather(int j, int n) {
+    List<T> items = new ArrayList<T>();
+    if (!lockFreeReads) {
+      acquireBucket(j);
+      try {
+        List<T>[] current = table;
+        for (int k = j; k < current.length; k += n) {
+          items.addAll(current[k]);
+        }
+      } finally {
+        releaseBucket(j);
+      }
+      return items;
+    }
+    retry: while (true) {
+      items.clear();
+      List<T>[] current = table;
+      for (int k = j; k < current.length; k += n) {
+        List<T> bucket = (List<T>) BUCKET.getAcquire(current, k);
+        if (bucket == MOVED) {
+          continue retry;       // current became an old table
+        } else if (bucket != null) {
+          items.addAll(bucket);
+          continue;
+        }
+        List<T>[] old = oldTable; // not drained yet, take its share of the old bucket
+        if (old == null) {
+          continue retry;       // drained meanwhile
+        }
+        List<T> oldBucket = (List<T>) BUCKET.getAcquire(old, k % old.length);
+        if (oldBucket == MOVED) {
+          continue retry;
+        } else if (oldBucket != null) {
+          for (T x : oldBucket) {
+            if (Math.abs(hash(x) % current.length) == k) {
+              items.add(x);
+            }
+          }
+        }
+      }
+      return items;
+    }
+  }
+  /**
+   * Items of buckets <code>[lo, hi)</code> of a table of length
+   * <code>n</code>, gathered one bucket at a time.
+   */
+  private class BucketSpliterator implements Spliterator<T> {
+    private int lo;
+    private final int hi;
+    private final int n;
+    private Iterator<T> items = Collections.emptyIterator();
+
+    BucketSpliterator(int lo, int hi, int n) {
+      this.lo = lo;
+      this.hi = hi;
+      this.n = n;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+      while (!items.hasNext()) {
+        if (lo >= hi) {
+          return false;
+        }
+        items = gather(lo++, n).iterator();
+      }
+      action.accept(items.next());
+      return true;
+    }
+
+    public Spliterator<T> trySplit() {
+      int mid = (lo + hi) >>> 1;
+      if (items.hasNext() || mid <= lo) {
+        return null;
+      }
+      Spliterator<T> prefix = new BucketSpliterator(lo, mid, n);
+      lo = mid;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return (long) size * (hi - lo) / n;
+    }
+
+    public int characteristics() {
+      return DISTINCT | NONNULL | CONCURRENT;
+    }
+  }
+  /**
+   * Make a bucket visible to lock-free readers.
+   */
+  protected static void publish(List[] table, int index, List bucket) {
+    BUCKET.setRelease(table, index, bucket);
+  }
+  /**
+   * Start an incremental resize. Caller must exclude all other threads.
+   * @param stripes number of locks guarding the current table
+   */
+  protected void startMigration(int stripes) {
+    List<T>[] newTable = (List<T>[]) new List[2 * table.length];
+    cursor = new int[stripes];
+    for (int s = 0; s < stripes; s++) {
+      cursor[s] = s;
+    }
+    pending.set(stripes);
+    oldTable = table;
+    table = newTable;
+  }
+  /**
+   * Move up to <code>budget</code> old buckets of a stripe to the new table.
+   * Caller must hold the stripe's lock.
+   * @param old table being drained
+   * @param stripe stripe index
+   * @param budget number of old buckets to visit
+   */
+  protected void drainStripe(List<T>[] old, int stripe, int budget) {
+    int j = cursor[stripe];
+    if (j >= old.length) {
+      return;
+    }
+    for (int k = 0; k < budget && j < old.length; k++, j += cursor.length) {
+      drain(old, j);
+    }
+    cursor[stripe] = j;
+    if (j >= old.length && pending.decrementAndGet() == 0) {
+      oldTable = null; // every old bucket is MOVED
+    }
+  }
+  /**
+   * Move one old bucket to the new table, if not already moved.
+   */
+  private void drain(List<T>[] old, int j) {
+    List<T> bucket = old[j];
+    if (bucket == MOVED) {
+      return;
+    }
+    // split into fresh lists, published only once filled
+    List<T> lo = new ArrayList<T>();
+    List<T> hi = new ArrayList<T>();
+    if (bucket != null) {
+      for (T x : bucket) {
+        if (Math.abs(hash(x) % table.length) == j) {
+          lo.add(x);
+        } else {
+          hi.add(x);
+        }
+      }
+    }
+    publish(table, j, lo);
+    publish(table, j + old.length, hi);
+    publish(old, j, MOVED);
+  }
+
   /**
    * Synchronize before adding, removing, or testing for item
    * @param x item involved
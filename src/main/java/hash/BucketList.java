@@ -12,50 +12,75 @@ package hash;
 
 import java.util.concurrent.atomic.*;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * @param T item type
  * @author Maurice Herlihy
  */
 public class BucketList<T> implements Set<T> {
-  static final int WORD_SIZE = 24;
-  static final int LO_MASK = 0x00000001;
-  static final int HI_MASK = 0x00800000;
-  static final int MASK = 0x00FFFFFF;
+  /**
+   * Split-order keys are below <code>1L &lt;&lt; KEY_BITS</code>: a reversed
+   * 32-bit hash code or bucket index, shifted left to make room for the bit
+   * that tells regular entries from sentinels.
+   */
+  static final int KEY_BITS = 33;
   Node head;
+  final HashStrategy strategy;
 
   /**
    * Constructor
    */
   public BucketList() {
+    this(HashStrategy.IDENTITY);
+  }
+
+  /**
+   * Constructor
+   * @param strategy maps items to hash codes
+   */
+  public BucketList(HashStrategy strategy) {
     this.head = new Node(0);
-    this.head.next = new AtomicMarkableReference<Node>(new Node(Integer.MAX_VALUE), false);
+    this.head.next = new AtomicMarkableReference<Node>(new Node(Long.MAX_VALUE), false);
+    this.strategy = strategy;
   }
 
-  private BucketList(Node e) {
+  private BucketList(Node e, HashStrategy strategy) {
     this.head = e;
+    this.strategy = strategy;
   }
 
   /**
-   * Restricted-size hash code
+   * Hash code
    * 
    * @param x object to hash
    * @return hash code
    */
   public static int hashCode(Object x) {
-    return x.hashCode() & MASK;
+    return x.hashCode();
+  }
+
+  /**
+   * Hash code under a strategy
+   * 
+   * @param x object to hash
+   * @param strategy maps items to hash codes
+   * @return hash code
+   */
+  public static int hashCode(Object x, HashStrategy strategy) {
+    return strategy.hash(x);
   }
 
   public boolean add(T x) {
-    int key = makeRegularKey(x);
+    long key = makeRegularKey(x);
     boolean splice;
     while (true) {
       // find predecessor and current entries
-      Window window = find(head, key);
+      Window window = find(head, key, x);
       Node pred = window.pred;
       Node curr = window.curr;
-      // is the key present?
-      if (curr.key == key) {
+      // is the item present?
+      if (window.match) {
         return false;
       } else {
         // splice in new entry
@@ -74,56 +99,55 @@ public class BucketList<T> implements Set<T> {
   }
 
   public boolean remove(T x) {
-    int key = makeRegularKey(x);
+    long key = makeRegularKey(x);
     boolean snip;
     while (true) {
       // find predecessor and current entries
-      Window window = find(head, key);
+      Window window = find(head, key, x);
       Node pred = window.pred;
       Node curr = window.curr;
-      // is the key present?
-      if (curr.key != key) {
+      // is the item present?
+      if (!window.match) {
         return false;
       } else {
-        // snip out matching entry
-        // 标记为true 即可 !
-        snip = pred.next.attemptMark(curr, true);
-        if (snip)
-          return true;
-        else
+        // mark entry's own next reference, then try to snip it out;
+        // attemptMark would also succeed if another remover marked it first
+        Node succ = curr.next.getReference();
+        snip = curr.next.compareAndSet(succ, succ, false, true);
+        if (!snip)
           continue;
+        pred.next.compareAndSet(curr, succ, false, false);
+        return true;
       }
     }
   }
 
   public boolean contains(T x) {
-    int key = makeRegularKey(x);
-    Window window = find(head, key);
-    Node pred = window.pred;
-    Node curr = window.curr;
-    return (curr.key == key);
+    long key = makeRegularKey(x);
+    Window window = find(head, key, x);
+    return window.match;
   }
 
   // 和 add 几乎完全相同的算法
   // sentinel 从 parent 处添加
   public BucketList<T> getSentinel(int index) {
-    int key = makeSentinelKey(index);
+    long key = makeSentinelKey(index);
     boolean splice;
     while (true) {
       // find predecessor and current entries
-      Window window = find(head, key);
+      Window window = find(head, key, null);
       Node pred = window.pred;
       Node curr = window.curr;
       // is the key present?
-      if (curr.key == key) {
-        return new BucketList<T>(curr);
+      if (window.match) {
+        return new BucketList<T>(curr, strategy);
       } else {
         // splice in new entry
         Node entry = new Node(key);
-        entry.next.set(pred.next.getReference(), false);
+        entry.next.set(curr, false);
         splice = pred.next.compareAndSet(curr, entry, false, false);
         if (splice)
-          return new BucketList<T>(entry);
+          return new BucketList<T>(entry, strategy);
         else
           continue;
       }
@@ -133,83 +157,206 @@ public class BucketList<T> implements Set<T> {
   // TODO  为什么需要进行 reverse ?
   // 为了辅助合并，形成 reverse order !
   // 将倍数的连接在一起了 !
-  public static int reverse(int key) {
-    int loMask = LO_MASK;
-    int hiMask = HI_MASK;
-    int result = 0;
-    for (int i = 0; i < WORD_SIZE; i++) {
-      if ((key & loMask) != 0) { // bit set
-        result |= hiMask;
-      }
-      loMask <<= 1;
-      hiMask >>>= 1; // fill with 0 from left
-    }
-    return result;
+  /**
+   * Split-order key of a regular entry: reversed hash code, low bit set.
+   */
+  static long regularKey(int hash) {
+    return ((Integer.reverse(hash) & 0xFFFFFFFFL) << 1) | 1L;
+  }
+
+  /**
+   * Split-order key of a bucket sentinel: reversed index, low bit clear.
+   */
+  static long sentinelKey(int index) {
+    return (Integer.reverse(index) & 0xFFFFFFFFL) << 1;
+  }
+
+  /**
+   * Bucket whose sentinel has the given key.
+   */
+  static int sentinelIndex(long key) {
+    return Integer.reverse((int) (key >>> 1));
   }
 
-  public int makeRegularKey(T x) {
-    int code = x.hashCode() & MASK; // take 3 lowest bytes
-    return reverse(code | HI_MASK);
+  public long makeRegularKey(T x) {
+    return regularKey(hashCode(x, strategy));
   }
 
   // key 是index ，所在的位置就是最小值
   // 优雅的性质
-  private int makeSentinelKey(int key) {
-    return reverse(key & MASK);
+  private long makeSentinelKey(int index) {
+    return sentinelKey(index);
   }
 
   // iterate over Set elements
   public Iterator<T> iterator() {
-    throw new UnsupportedOperationException();
+    return new Cursor(head, Long.MAX_VALUE);
+  }
+
+  /**
+   * Iterate over the items between this list's head and a bound.
+   * @param hiKey split-order key where iteration stops
+   * @return weakly-consistent iterator
+   */
+  Iterator<T> iterator(long hiKey) {
+    return new Cursor(head, hiKey);
+  }
+
+  /**
+   * Weakly-consistent iterator. Walks next references without helping to
+   * snip, skipping sentinels and marked entries, so it returns every item
+   * present for the whole iteration and never returns an item twice.
+   */
+  private class Cursor implements Iterator<T> {
+    private final long hiKey;
+    private Node next; // next entry to return, or null at end
+
+    Cursor(Node start, long hiKey) {
+      this.hiKey = hiKey;
+      this.next = advance(start);
+    }
+
+    /**
+     * First unmarked regular entry after node, below the bound.
+     */
+    private Node advance(Node node) {
+      boolean[] marked = { false };
+      Node curr = node.next.getReference();
+      while (curr.key < hiKey) {
+        Node succ = curr.next.get(marked);
+        if ((curr.key & 1L) != 0 && !marked[0]) {
+          return curr;
+        }
+        curr = succ;
+      }
+      return null;
+    }
+
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    public T next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      T value = next.value;
+      next = advance(next);
+      return value;
+    }
   }
 
   private class Node {
-    int key;
+    long key;
     T value;
     AtomicMarkableReference<Node> next;
 
-    Node(int key, T object) { // usual constructor
+    Node(long key, T object) { // usual constructor
       this.key = key;
       this.value = object;
       this.next = new AtomicMarkableReference<Node>(null, false);
     }
 
-    Node(int key) { // sentinel constructor
+    Node(long key) { // sentinel constructor
       this.key = key;
       this.next = new AtomicMarkableReference<Node>(null, false);
     }
 
-    Node getNext() {
-      boolean[] cMarked = { false }; // is curr marked?
-      boolean[] sMarked = { false }; // is succ marked?
-      Node entry = this.next.get(cMarked);
-      // 在getNext 的过程中间，将标记的过的去除!
-      while (cMarked[0]) {
-        Node succ = entry.next.get(sMarked);
-        this.next.compareAndSet(entry, succ, true, sMarked[0]);
-        entry = this.next.get(cMarked);
-      }
-      return entry;
+    /**
+     * Same key and an equal item. Sentinels match on key alone.
+     */
+    boolean matches(long key, T object) {
+      if (this.key != key)
+        return false;
+      return object == null ? value == null : object.equals(value);
     }
   }
 
   class Window {
     public Node pred;
     public Node curr;
+    public boolean match;
 
-    Window(Node pred, Node curr) {
+    Window(Node pred, Node curr, boolean match) {
       this.pred = pred;
       this.curr = curr;
+      this.match = match;
     }
   }
 
-  public Window find(Node head, int key) {
-    Node pred = head;
-    Node curr = head.getNext();
-    while (curr.key < key) {
-      pred = curr;
-      curr = pred.getNext();
+  /**
+   * Find the entry with key <code>key</code> holding an item equal to
+   * <code>x</code> if there is one, otherwise the first entry whose key is
+   * greater, and its predecessor, snipping out marked entries on the way.
+   * Different items can share a key, so entries with equal keys are told
+   * apart by <code>equals</code>. A removed entry's own next reference is
+   * marked. The search starts at <code>start</code>, which must precede
+   * every entry with the key, and falls back to this list's sentinel if
+   * <code>start</code> itself gets removed.
+   */
+  public Window find(Node start, long key, T x) {
+    Node pred = null, curr = null, succ = null;
+    boolean[] marked = { false }; // is curr marked?
+    retry: while (true) {
+      pred = start;
+      curr = pred.next.get(marked);
+      if (marked[0]) { // start was removed, sentinels never are
+        start = head;
+        continue retry;
+      }
+      while (true) {
+        succ = curr.next.get(marked);
+        while (marked[0]) { // replace curr if marked
+          if (!pred.next.compareAndSet(curr, succ, false, false))
+            continue retry;
+          curr = succ;
+          succ = curr.next.get(marked);
+        }
+        if (curr.key > key)
+          return new Window(pred, curr, false);
+        if (curr.matches(key, x))
+          return new Window(pred, curr, true);
+        pred = curr;
+        curr = succ;
+      }
+    }
+  }
+
+  /**
+   * Add items whose keys are ascending and belong to this list's bucket.
+   * Each search resumes from where the previous one stopped, so the batch
+   * costs a single traversal.
+   * @param items items to add
+   * @param keys  their regular keys, ascending
+   * @param from  first index to add
+   * @param to    index after last one to add
+   * @return number of items added
+   */
+  int addSorted(T[] items, long[] keys, int from, int to) {
+    Node start = head;
+    Node before = head; // precedes every entry with the current key
+    int added = 0;
+    for (int i = from; i < to; i++) {
+      long key = keys[i];
+      if (i == from || key != keys[i - 1]) {
+        before = start;
+      }
+      while (true) {
+        // items sharing a key may be anywhere among its entries
+        Window window = find(before, key, items[i]);
+        start = window.pred;
+        if (window.match) {
+          break;
+        }
+        Node entry = new Node(key, items[i]);
+        entry.next.set(window.curr, false);
+        if (window.pred.next.compareAndSet(window.curr, entry, false, false)) {
+          start = entry;
+          added++;
+          break;
+        }
+      }
     }
-    return new Window(pred, curr);
+    return added;
   }
 }
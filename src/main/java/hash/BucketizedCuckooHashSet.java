@@ -0,0 +1,437 @@
+/*
+ * BucketizedCuckooHashSet.java
+ *
+ * Created on October 18, 2026, 5:10 PM
+ */
+
+package hash;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lists.ConcurrentSet;
+
+/**
+ * Concurrent cuckoo hash set with set-associative buckets.
+ * <p>
+ * Every item may live in any of the <code>SLOTS</code> slots of two buckets,
+ * all kept in one flat array. When both buckets are full, a breadth-first
+ * search finds the shortest chain of displacements ending in a free slot,
+ * and the chain is applied backwards, one locked move at a time. This keeps
+ * the table working past 90% load before it must resize.
+ * <p>
+ * Buckets are guarded by striped spin locks, which only writers take. Each
+ * stripe also has a version that a displacement advances between copying
+ * an item into its new bucket and clearing its old slot, the one moment an
+ * item could seem absent to a reader scanning one bucket and then the other.
+ * <code>contains</code> takes no lock and never waits: it reads the versions
+ * of its two stripes, scans the slots, and retries only if either version
+ * moved or the table was replaced. A resize builds a fresh table and never
+ * changes the old one, so readers keep reading the old table meanwhile.
+ * @param T item type
+ */
+public class BucketizedCuckooHashSet<T> implements ConcurrentSet<T> {
+  static final int SLOTS = 4;           // slots per bucket
+  static final int STRIPES = 1 << 10;   // number of locks
+  static final int MAX_BFS = 512;       // buckets searched per displacement
+  static final int MAX_RETRIES = 8;     // failed displacements before resizing
+  private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+  volatile Table table;
+  final AtomicIntegerArray locks;
+  final AtomicLongArray versions;
+  final AtomicInteger size;
+  final HashStrategy strategy;
+
+  /**
+   * Constructor
+   * @param capacity initial number of items the table can hold
+   */
+  public BucketizedCuckooHashSet(int capacity) {
+    this(capacity, HashStrategy.IDENTITY);
+  }
+
+  /**
+   * Constructor
+   * @param capacity initial number of items the table can hold
+   * @param strategy maps items to hash codes, before the two bucket hashes
+   */
+  public BucketizedCuckooHashSet(int capacity, HashStrategy strategy) {
+    this.strategy = strategy;
+    int buckets = Integer.highestOneBit(Math.max(2, capacity / SLOTS) * 2 - 1);
+    table = new Table(buckets, strategy);
+    locks = new AtomicIntegerArray(STRIPES);
+    versions = new AtomicLongArray(STRIPES);
+    size = new AtomicInteger(0);
+  }
+
+  /**
+   * Is item in set? Never locks or waits for writers.
+   * @param x item to test
+   * @return <code>true</code> iff item present
+   */
+  public boolean contains(T x) {
+    int h = strategy.hash(x);
+    while (true) {
+      Table t = table;
+      int b0 = hash0(h, t.mask);
+      int b1 = hash1(h, t.mask);
+      long v0 = versions.get(stripe(b0));
+      long v1 = versions.get(stripe(b1));
+      boolean found = t.find(b0, x) >= 0 || t.find(b1, x) >= 0;
+      if (versions.get(stripe(b0)) == v0 && versions.get(stripe(b1)) == v1 && table == t) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * Add item to set
+   * @param x item to add
+   * @return <code>true</code> iff set changed
+   */
+  public boolean add(T x) {
+    int h = strategy.hash(x);
+    int failures = 0;
+    while (true) {
+      Table t = table;
+      int b0 = hash0(h, t.mask);
+      int b1 = hash1(h, t.mask);
+      lock(b0, b1);
+      try {
+        if (t == table) {
+          if (t.find(b0, x) >= 0 || t.find(b1, x) >= 0) {
+            return false;
+          }
+          if (t.insert(b0, x) || t.insert(b1, x)) {
+            size.getAndIncrement();
+            return true;
+          }
+        }
+      } finally {
+        unlock(b0, b1);
+      }
+      if (t != table) {
+        continue; // resized meanwhile
+      }
+      // both buckets full: free a slot along the shortest cuckoo path
+      int[] path = t.search(b0, b1);
+      if (path == null || (!displace(t, path) && ++failures >= MAX_RETRIES)) {
+        resize(t);
+        failures = 0;
+      }
+    }
+  }
+
+  /**
+   * Remove item from set
+   * @param x item to remove
+   * @return <code>true</code> iff set changed
+   */
+  public boolean remove(T x) {
+    int h = strategy.hash(x);
+    while (true) {
+      Table t = table;
+      int b0 = hash0(h, t.mask);
+      int b1 = hash1(h, t.mask);
+      lock(b0, b1);
+      try {
+        if (t != table) {
+          continue;
+        }
+        if (t.delete(b0, x) || t.delete(b1, x)) {
+          size.getAndDecrement();
+          return true;
+        }
+        return false;
+      } finally {
+        unlock(b0, b1);
+      }
+    }
+  }
+
+  /**
+   * Number of items. Exact only when quiescent.
+   * @return number of items
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * Fraction of slots in use.
+   * @return load factor
+   */
+  public double loadFactor() {
+    return size.get() / (double) table.slots.length;
+  }
+
+  /**
+   * Apply a cuckoo path backwards: each move empties the slot the previous
+   * move needs. Each move locks both buckets involved and checks that the
+   * item it is moving is still where the search saw it.
+   * @return <code>true</code> iff all moves succeeded
+   */
+  private boolean displace(Table t, int[] path) {
+    // path holds (bucket, slot) pairs from a root bucket to the last
+    // displaced item, then the bucket that has a free slot
+    int last = path.length - 1;
+    for (int i = last - 2; i >= 0; i -= 2) {
+      int from = path[i];
+      int slot = path[i + 1];
+      int to = i + 2 < last ? path[i + 2] : path[last];
+      lock(from, to);
+      try {
+        if (t != table) {
+          return false;
+        }
+        Object y = t.get(from * SLOTS + slot);
+        if (y == null) {
+          continue;       // already free: someone removed it
+        }
+        int h = strategy.hash(y);
+        if (alternate(h, from, t.mask) != to || !t.insert(to, y)) {
+          return false;   // path is stale
+        }
+        // a reader that sees the old slot cleared also sees this, and retries
+        versions.getAndIncrement(stripe(from));
+        t.set(from * SLOTS + slot, null);
+      } finally {
+        unlock(from, to);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Double the table. Takes every stripe lock, so only happens when
+   * displacement cannot find room. Readers are not held up: the old table
+   * does not change, and they move to the new one once it is published.
+   */
+  private void resize(Table old) {
+    for (int s = 0; s < STRIPES; s++) {
+      lockStripe(s);
+    }
+    try {
+      if (table != old) {
+        return; // someone beat us to it
+      }
+      int buckets = 2 * (old.mask + 1);
+      Table t;
+      do {
+        t = rehash(old, buckets);
+        buckets *= 2;
+      } while (t == null);
+      table = t;
+    } finally {
+      for (int s = 0; s < STRIPES; s++) {
+        locks.set(s, 0);
+      }
+    }
+  }
+
+  /**
+   * Copy every item into a fresh table, or <code>null</code> if some item
+   * cannot be placed. Caller holds every lock.
+   */
+  private Table rehash(Table old, int buckets) {
+    Table t = new Table(buckets, strategy);
+    for (int i = 0; i < old.slots.length; i++) {
+      Object y = old.get(i);
+      if (y != null) {
+        int h = strategy.hash(y);
+        int b0 = hash0(h, t.mask);
+        int b1 = hash1(h, t.mask);
+        while (!t.insert(b0, y) && !t.insert(b1, y)) {
+          int[] path = t.search(b0, b1);
+          if (path == null) {
+            return null;
+          }
+          for (int j = path.length - 3; j >= 0; j -= 2) {
+            int from = path[j];
+            int slot = path[j + 1];
+            int to = j + 2 < path.length - 1 ? path[j + 2] : path[path.length - 1];
+            t.insert(to, t.get(from * SLOTS + slot));
+            t.set(from * SLOTS + slot, null);
+          }
+        }
+      }
+    }
+    return t;
+  }
+
+  static int hash0(int h, int mask) {
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return h & mask;
+  }
+
+  static int hash1(int h, int mask) {
+    h *= 0x9E3779B9;
+    h ^= h >>> 15;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h & mask;
+  }
+
+  /**
+   * The other bucket an item with this hash code may live in.
+   */
+  static int alternate(int h, int bucket, int mask) {
+    int b0 = hash0(h, mask);
+    return bucket == b0 ? hash1(h, mask) : b0;
+  }
+
+  private static int stripe(int bucket) {
+    return bucket & (STRIPES - 1);
+  }
+
+  private void lockStripe(int s) {
+    while (locks.get(s) != 0 || !locks.compareAndSet(s, 0, 1)) {
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * Lock the stripes of two buckets, lower stripe first.
+   */
+  private void lock(int b0, int b1) {
+    int s0 = stripe(b0), s1 = stripe(b1);
+    if (s0 == s1) {
+      lockStripe(s0);
+    } else {
+      lockStripe(Math.min(s0, s1));
+      lockStripe(Math.max(s0, s1));
+    }
+  }
+
+  private void unlock(int b0, int b1) {
+    int s0 = stripe(b0), s1 = stripe(b1);
+    locks.set(s0, 0);
+    if (s0 != s1) {
+      locks.set(s1, 0);
+    }
+  }
+
+  /**
+   * Bucket array. Slot <code>j</code> of bucket <code>b</code> is at
+   * <code>b * SLOTS + j</code>.
+   */
+  static final class Table {
+    final Object[] slots;
+    final int mask;
+    final HashStrategy strategy;
+
+    Table(int buckets, HashStrategy strategy) {
+      slots = new Object[buckets * SLOTS];
+      mask = buckets - 1;
+      this.strategy = strategy;
+    }
+
+    Object get(int i) {
+      return SLOT.getAcquire(slots, i);
+    }
+
+    void set(int i, Object y) {
+      SLOT.setRelease(slots, i, y);
+    }
+
+    int find(int bucket, Object x) {
+      for (int i = bucket * SLOTS; i < (bucket + 1) * SLOTS; i++) {
+        if (x.equals(get(i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    boolean insert(int bucket, Object x) {
+      for (int i = bucket * SLOTS; i < (bucket + 1) * SLOTS; i++) {
+        if (get(i) == null) {
+          set(i, x);
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean delete(int bucket, Object x) {
+      int i = find(bucket, x);
+      if (i < 0) {
+        return false;
+      }
+      set(i, null);
+      return true;
+    }
+
+    /**
+     * Breadth-first search from both buckets for the closest bucket with a
+     * free slot. Reads without locks, so the path is only a hint.
+     * @return (bucket, slot) pairs followed by the free bucket, or
+     *         <code>null</code> if none found within <code>MAX_BFS</code>
+     */
+    int[] search(int b0, int b1) {
+      int[] bucket = new int[MAX_BFS];
+      int[] parent = new int[MAX_BFS];
+      int[] slot = new int[MAX_BFS];
+      bucket[0] = b0;
+      bucket[1] = b1;
+      parent[0] = parent[1] = -1;
+      int tail = 2;
+      for (int head = 0; head < tail; head++) {
+        int b = bucket[head];
+        for (int j = 0; j < SLOTS; j++) {
+          Object y = get(b * SLOTS + j);
+          if (y == null) {
+            return path(bucket, parent, slot, head, -1, b);
+          }
+          int alt = alternate(strategy.hash(y), b, mask);
+          if (hasFree(alt)) {
+            return path(bucket, parent, slot, head, j, alt);
+          }
+          if (tail < MAX_BFS) {
+            bucket[tail] = alt;
+            parent[tail] = head;
+            slot[tail] = j;
+            tail++;
+          }
+        }
+      }
+      return null;
+    }
+
+    private boolean hasFree(int bucket) {
+      for (int i = bucket * SLOTS; i < (bucket + 1) * SLOTS; i++) {
+        if (get(i) == null) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Unwind search tree into a path from a root bucket.
+     */
+    private int[] path(int[] bucket, int[] parent, int[] slot, int node, int lastSlot, int free) {
+      int depth = lastSlot < 0 ? 0 : 1;
+      for (int n = node; parent[n] >= 0; n = parent[n]) {
+        depth++;
+      }
+      int[] path = new int[2 * depth + 1];
+      path[2 * depth] = free;
+      int i = 2 * depth - 2;
+      if (lastSlot >= 0) {
+        path[i] = bucket[node];
+        path[i + 1] = lastSlot;
+        i -= 2;
+      }
+      for (int n = node; parent[n] >= 0; n = parent[n], i -= 2) {
+        path[i] = bucket[parent[n]];
+        path[i + 1] = slot[n];
+      }
+      return path;
+    }
+  }
+}
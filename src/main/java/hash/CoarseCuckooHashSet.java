@@ -13,30 +13,36 @@ package hash;
 import java.util.Random;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import lists.ConcurrentSet;
 
 /**
  * Concurrent Cuckoo hashing.
  * @author Maurice Herlihy
  */
-public class CoarseCuckooHashSet<T> {
+public class CoarseCuckooHashSet<T> implements ConcurrentSet<T> {
   protected T[][] table;
   protected Lock lock;
   protected int size;
   protected static final int LIMIT = 32;
   // used for rehashing
   private Random random;
+  private final HashStrategy strategy;
   
   public CoarseCuckooHashSet(int capacity) {
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  public CoarseCuckooHashSet(int capacity, HashStrategy strategy) {
+    this.strategy = strategy;
     lock = new ReentrantLock();
     table = (T[][]) new Object[2][capacity];
     size = capacity;
     random = new Random();
   }
   private final int hash0(Object x) {
-    return x.hashCode() % size;
+    return Math.abs(strategy.hash(x) % size);
   }
   private final int hash1(Object x) {
-    random.setSeed(x.hashCode());
+    random.setSeed(strategy.hash(x));
     return random.nextInt(size);
   }
 
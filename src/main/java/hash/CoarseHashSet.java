@@ -22,7 +22,10 @@ import java.util.concurrent.locks.ReentrantLock;
 public class CoarseHashSet<T> extends BaseHashSet<T>{
   final Lock lock;
   CoarseHashSet(int capacity) {
-    super(capacity);
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  CoarseHashSet(int capacity, HashStrategy strategy) {
+    super(capacity, strategy);
     lock  = new ReentrantLock();
   }
   
@@ -43,7 +46,7 @@ public class CoarseHashSet<T> extends BaseHashSet<T>{
         table[i] = new ArrayList<T>();
       for (List<T> bucket : oldTable) {
         for (T x : bucket) {
-          int myBucket = Math.abs(x.hashCode() % table.length);
+          int myBucket = Math.abs(hash(x) % table.length);
           table[myBucket].add(x);
         }
       }
@@ -65,6 +68,12 @@ public class CoarseHashSet<T> extends BaseHashSet<T>{
   public void release(T x) {
     lock.unlock();
   }
+  protected void acquireBucket(int j) {
+    lock.lock();
+  }
+  protected void releaseBucket(int j) {
+    lock.unlock();
+  }
   public boolean policy() {
     return size / table.length > 4;
   }
@@ -0,0 +1,369 @@
+/*
+ * ConcurrentCache.java
+ *
+ * Created on October 18, 2026, 8:15 PM
+ */
+
+package hash;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded concurrent cache with CLOCK eviction. Keys are spread over stripes
+ * as in <code>StripedHashSet</code>, and each stripe is an independent cache
+ * holding its share of the size bound: its own lock, bucket table and CLOCK
+ * ring. Eviction only ever touches the stripe being inserted into, so there
+ * is no global lock.
+ * <p>
+ * Lookups take no lock at all, like <code>StripedHashSet</code>'s lock-free
+ * <code>contains</code>: writers hold the stripe lock and publish entries
+ * with release stores, readers walk the bucket chain with acquire loads, and
+ * a hit just sets the entry's volatile reference bit, and only if it is not
+ * set already.
+ * @param K key type
+ * @param V value type
+ */
+public class ConcurrentCache<K, V> {
+  static final int DEFAULT_STRIPES = 64;
+  /**
+   * Ordered access to bucket chains, for readers that take no lock.
+   */
+  private static final VarHandle BUCKET = MethodHandles.arrayElementVarHandle(Entry[].class);
+  final Lock[] locks;
+  final Segment<K, V>[] segments;
+  final HashStrategy strategy;
+  final LongAdder hits = new LongAdder();
+  final LongAdder misses = new LongAdder();
+  final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructor
+   * @param maxSize most entries the cache holds
+   */
+  public ConcurrentCache(int maxSize) {
+    this(maxSize, DEFAULT_STRIPES, HashStrategy.MURMUR3);
+  }
+
+  /**
+   * Constructor
+   * @param maxSize most entries the cache holds, split evenly over stripes
+   * @param stripes number of locks
+   * @param strategy maps keys to hash codes
+   */
+  public ConcurrentCache(int maxSize, int stripes, HashStrategy strategy) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize " + maxSize);
+    }
+    stripes = Math.min(stripes, maxSize);
+    this.strategy = strategy;
+    locks = new Lock[stripes];
+    segments = (Segment<K, V>[]) new Segment[stripes];
+    for (int j = 0; j < stripes; j++) {
+      locks[j] = new ReentrantLock();
+      // spread the remainder so that capacities add up to maxSize
+      segments[j] = new Segment<K, V>(maxSize / stripes + (j < maxSize % stripes ? 1 : 0));
+    }
+  }
+
+  /**
+   * Cached value for key
+   * @param key key to look up
+   * @return value, or <code>null</code> on a miss
+   */
+  public V get(K key) {
+    int hash = strategy.hash(key);
+    Entry<K, V> entry = segments[stripe(hash)].find(key, index(hash));
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.touch();
+  }
+
+  /**
+   * Cache value for key, evicting an entry of the same stripe if it is full.
+   * @param key key to bind
+   * @param value new value, not <code>null</code>
+   * @return previous value, or <code>null</code> if key was absent
+   */
+  public V put(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = strategy.hash(key);
+    int stripe = stripe(hash);
+    locks[stripe].lock();
+    try {
+      Segment<K, V> segment = segments[stripe];
+      Entry<K, V> entry = segment.find(key, index(hash));
+      if (entry != null) {
+        V old = entry.value;
+        entry.value = value;
+        entry.touch();
+        return old;
+      }
+      insert(segment, key, index(hash), value);
+      return null;
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   * Cached value for key, computing and caching it on a miss. A hit takes
+   * no lock. The function runs while holding the key's stripe lock, so it
+   * should be quick and must not use this cache.
+   * @param key key to look up
+   * @param function computes value for absent key
+   * @return current (cached or computed) value, or <code>null</code> if the
+   *         function returned <code>null</code>
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+    int hash = strategy.hash(key);
+    int stripe = stripe(hash);
+    Segment<K, V> segment = segments[stripe];
+    Entry<K, V> entry = segment.find(key, index(hash));
+    if (entry != null) {
+      hits.increment();
+      return entry.touch();
+    }
+    locks[stripe].lock();
+    try {
+      entry = segment.find(key, index(hash)); // added meanwhile?
+      if (entry != null) {
+        hits.increment();
+        return entry.touch();
+      }
+      misses.increment();
+      V value = function.apply(key);
+      if (value != null) {
+        insert(segment, key, index(hash), value);
+      }
+      return value;
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   * Drop key from the cache
+   * @param key key to remove
+   * @return value removed, or <code>null</code> if key was absent
+   */
+  public V remove(K key) {
+    int hash = strategy.hash(key);
+    int stripe = stripe(hash);
+    locks[stripe].lock();
+    try {
+      Segment<K, V> segment = segments[stripe];
+      Entry<K, V> entry = segment.find(key, index(hash));
+      if (entry == null) {
+        return null;
+      }
+      segment.unlink(entry);
+      segment.ring[entry.slot] = null;
+      segment.free[segment.freeCount++] = entry.slot;
+      return entry.value;
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   * Number of cached entries. Not synchronized, so only exact when quiescent.
+   * @return number of entries
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.count;
+    }
+    return size;
+  }
+
+  /**
+   * @return number of lookups that found their key
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return number of lookups that did not find their key
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return number of entries dropped to make room
+   */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return fraction of lookups that were hits
+   */
+  public double hitRate() {
+    long hit = hits.sum();
+    long total = hit + misses.sum();
+    return total == 0 ? 0.0 : hit / (double) total;
+  }
+
+  private int stripe(int hash) {
+    return Math.abs(hash % locks.length);
+  }
+
+  /**
+   * Bucket of a hash code within its stripe. Every key of a stripe has the
+   * same remainder, so use the quotient.
+   */
+  private int index(int hash) {
+    return hash / locks.length;
+  }
+
+  /**
+   * Add a new entry, caller holds the stripe lock.
+   */
+  private void insert(Segment<K, V> segment, K key, int index, V value) {
+    int slot;
+    if (segment.freeCount > 0) {
+      slot = segment.free[--segment.freeCount];
+    } else {
+      slot = segment.evict();
+      evictions.increment();
+    }
+    Entry<K, V> entry = new Entry<K, V>(key, index, value, slot);
+    segment.ring[slot] = entry;
+    segment.link(entry);
+  }
+
+  /**
+   * Cached binding. Only written while holding its stripe's lock, except
+   * for the reference bit, and read without it.
+   */
+  static final class Entry<K, V> {
+    final K key;
+    final int index;
+    volatile V value;
+    // set by hits, cleared as the clock hand passes
+    volatile boolean referenced;
+    final int slot;
+    // rest of the bucket chain; a removed entry keeps its successor, so
+    // readers standing on it can carry on
+    volatile Entry<K, V> next;
+
+    Entry(K key, int index, V value, int slot) {
+      this.key = key;
+      this.index = index;
+      this.value = value;
+      this.slot = slot;
+    }
+
+    /**
+     * Record a hit, writing the bit only if the clock hand has cleared it,
+     * so that repeated hits on a hot entry do not write to shared memory.
+     * @return current value
+     */
+    V touch() {
+      if (!referenced) {
+        referenced = true;
+      }
+      return value;
+    }
+  }
+
+  /**
+   * One stripe's share of the cache. Only changed while holding that
+   * stripe's lock; <code>find</code> needs no lock.
+   */
+  static final class Segment<K, V> {
+    final Entry<K, V>[] table; // bucket chains, never resized
+    final Entry<K, V>[] ring;  // clock face, one slot per entry
+    final int[] free;          // stack of empty ring slots
+    int freeCount;
+    int hand;
+    int count;
+
+    Segment(int capacity) {
+      // at least as many buckets as entries
+      table = (Entry<K, V>[]) new Entry[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+      ring = (Entry<K, V>[]) new Entry[capacity];
+      free = new int[capacity];
+      for (int i = 0; i < capacity; i++) {
+        free[i] = capacity - 1 - i;
+      }
+      freeCount = capacity;
+    }
+
+    /**
+     * Entry for key, or <code>null</code> if absent.
+     * @param index key's bucket index, before masking
+     */
+    Entry<K, V> find(K key, int index) {
+      Entry<K, V> entry = (Entry<K, V>) BUCKET.getAcquire(table, index & (table.length - 1));
+      while (entry != null) {
+        if (entry.index == index && key.equals(entry.key)) {
+          return entry;
+        }
+        entry = entry.next;
+      }
+      return null;
+    }
+
+    /**
+     * Publish an entry at the head of its bucket chain.
+     */
+    void link(Entry<K, V> entry) {
+      int bucket = entry.index & (table.length - 1);
+      entry.next = table[bucket];
+      BUCKET.setRelease(table, bucket, entry);
+      count++;
+    }
+
+    /**
+     * Take an entry out of its bucket chain. The entry's own successor is
+     * left alone, for readers that have already reached it.
+     */
+    void unlink(Entry<K, V> entry) {
+      int bucket = entry.index & (table.length - 1);
+      Entry<K, V> pred = table[bucket];
+      if (pred == entry) {
+        BUCKET.setRelease(table, bucket, entry.next);
+      } else {
+        while (pred.next != entry) {
+          pred = pred.next;
+        }
+        pred.next = entry.next;
+      }
+      count--;
+    }
+
+    /**
+     * Advance the hand past recently used entries, giving each a second
+     * chance, and drop the first entry not used since the last pass.
+     * @return the freed slot
+     */
+    int evict() {
+      while (true) {
+        Entry<K, V> entry = ring[hand];
+        int slot = hand;
+        hand = (hand + 1) % ring.length;
+        if (entry.referenced) {
+          entry.referenced = false;
+        } else {
+          unlink(entry);
+          ring[slot] = null;
+          return slot;
+        }
+      }
+    }
+  }
+}
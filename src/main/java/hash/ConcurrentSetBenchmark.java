@@ -0,0 +1,246 @@
+/*
+ * ConcurrentSetBenchmark.java
+ *
+ * Created on October 18, 2026, 10:45 PM
+ */
+
+package hash;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import lists.CoarseList;
+import lists.ConcurrentSet;
+import lists.FineList;
+import lists.LazyList;
+import lists.LockFreeList;
+import lists.LockFreeSkipListSet;
+import lists.OptimisticList;
+import lists.OrderedLazyList;
+import lists.OrderedLockFreeList;
+import lists.OrderedOptimisticList;
+import lists.StampedFineList;
+import lists.UnrolledOptimisticList;
+import lists.VarHandleLockFreeList;
+
+/**
+ * Throughput and latency of every <code>ConcurrentSet</code> under the same
+ * workload. Each set is preloaded with half of the key range, warmed up, and
+ * then every thread runs a random mix of <code>contains</code>,
+ * <code>add</code> and <code>remove</code> on uniformly chosen keys for a
+ * fixed time. Every operation is timed, and the report gives throughput and
+ * latency percentiles from a log-linear histogram.
+ * <p>
+ * Usage: <code>ConcurrentSetBenchmark [sets] [threads] [keys] [mix] [millis]</code>
+ * where <code>sets</code> is <code>all</code> or a comma-separated list of
+ * names, and <code>mix</code> is the read/insert/remove split in percent,
+ * such as <code>90/5/5</code>. The fixed-capacity cuckoo sets are left out,
+ * since they fail once full.
+ */
+public class ConcurrentSetBenchmark {
+  static final int DEFAULT_KEYS = 1 << 10;
+  static final int DEFAULT_MILLIS = 1000;
+  static final String DEFAULT_MIX = "90/5/5";
+
+  /**
+   * Set constructors by name. Hash sets start small and grow.
+   */
+  static final Map<String, Supplier<ConcurrentSet<Integer>>> SETS = new LinkedHashMap<>();
+  static {
+    SETS.put("coarse-list", () -> new CoarseList<Integer>());
+    SETS.put("fine-list", () -> new FineList<Integer>());
+    SETS.put("optimistic-list", () -> new OptimisticList<Integer>());
+    SETS.put("lazy-list", () -> new LazyList<Integer>());
+    SETS.put("lockfree-list", () -> new LockFreeList<Integer>());
+    SETS.put("ordered-optimistic-list", () -> new OrderedOptimisticList<Integer>());
+    SETS.put("ordered-lazy-list", () -> new OrderedLazyList<Integer>());
+    SETS.put("ordered-lockfree-list", () -> new OrderedLockFreeList<Integer>());
+    SETS.put("stamped-fine-list", () -> new StampedFineList<Integer>());
+    SETS.put("unrolled-optimistic-list", () -> new UnrolledOptimisticList<Integer>());
+    SETS.put("varhandle-lockfree-list", () -> new VarHandleLockFreeList<Integer>());
+    SETS.put("lockfree-skiplist", () -> new LockFreeSkipListSet<Integer>());
+    SETS.put("coarse-hash", () -> new CoarseHashSet<Integer>(16));
+    SETS.put("striped-hash", () -> new StripedHashSet<Integer>(16));
+    SETS.put("refinable-hash", () -> new RefinableHashSet<Integer>(16));
+    SETS.put("rw-striped-hash", () -> new RWStripedHashSet<Integer>(16));
+    SETS.put("lockfree-hash", () -> new LockFreeHashSet<Integer>(16));
+    SETS.put("striped-cuckoo", () -> new StripedCuckooHashSet<Integer>(16));
+    SETS.put("refinable-cuckoo", () -> new RefinableCuckooHashSet<Integer>(16));
+    SETS.put("bucketized-cuckoo", () -> new BucketizedCuckooHashSet<Integer>(16));
+  }
+
+  public static void main(String[] args) throws Exception {
+    String names = args.length > 0 ? args[0] : "all";
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int keys = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_KEYS;
+    String mix = args.length > 3 ? args[3] : DEFAULT_MIX;
+    int millis = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_MILLIS;
+    String[] split = mix.split("/");
+    if (split.length != 3) {
+      throw new IllegalArgumentException("mix must be read/insert/remove: " + mix);
+    }
+    int reads = Integer.parseInt(split[0]);
+    int inserts = Integer.parseInt(split[1]);
+    if (reads < 0 || inserts < 0 || reads + inserts + Integer.parseInt(split[2]) != 100) {
+      throw new IllegalArgumentException("mix percentages must add up to 100: " + mix);
+    }
+    List<String> selected = new ArrayList<>();
+    for (String name : names.equals("all") ? SETS.keySet().toArray(new String[0]) : names.split(",")) {
+      if (!SETS.containsKey(name)) {
+        throw new IllegalArgumentException("unknown set " + name + ", expected one of " + SETS.keySet());
+      }
+      selected.add(name);
+    }
+    Integer[] items = new Integer[keys]; // boxed once, so the timed loop does not allocate
+    for (int i = 0; i < keys; i++) {
+      items[i] = i;
+    }
+    System.out.printf("threads %d, keys %d, mix %s, millis %d%n", threads, keys, mix, millis);
+    System.out.println("set\tMops/s\tp50 ns\tp90 ns\tp99 ns\tp99.9 ns\tmax ns");
+    for (String name : selected) {
+      ConcurrentSet<Integer> set = SETS.get(name).get();
+      for (int i = 0; i < keys; i += 2) {
+        set.add(items[i]);
+      }
+      run(set, items, threads, reads, inserts, Math.max(1, millis / 4)); // warm up
+      LatencyHistogram latency = new LatencyHistogram();
+      double mops = run(set, items, threads, reads, inserts, millis, latency);
+      System.out.printf("%s\t%.3f\t%d\t%d\t%d\t%d\t%d%n", name, mops, latency.percentile(50),
+          latency.percentile(90), latency.percentile(99), latency.percentile(99.9), latency.max());
+    }
+  }
+
+  static double run(ConcurrentSet<Integer> set, Integer[] items, int threads, int reads, int inserts,
+      int millis) throws Exception {
+    return run(set, items, threads, reads, inserts, millis, new LatencyHistogram());
+  }
+
+  /**
+   * Run the mixed workload for a while, adding every operation's latency to
+   * the histogram.
+   * @return throughput in millions of operations per second
+   */
+  static double run(final ConcurrentSet<Integer> set, final Integer[] items, int threads, final int reads,
+      final int inserts, int millis, LatencyHistogram latency) throws Exception {
+    final CyclicBarrier start = new CyclicBarrier(threads + 1);
+    final long[] deadline = new long[1];
+    final LatencyHistogram[] histograms = new LatencyHistogram[threads];
+    final long[] counts = new long[threads];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int id = t;
+      histograms[t] = new LatencyHistogram();
+      workers[t] = new Thread() {
+        public void run() {
+          try {
+            start.await();
+          } catch (Exception ex) {
+            return;
+          }
+          LatencyHistogram histogram = histograms[id];
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long count = 0;
+          long now = System.nanoTime();
+          while (now < deadline[0]) {
+            Integer x = items[random.nextInt(items.length)];
+            int op = random.nextInt(100);
+            long begin = now;
+            if (op < reads) {
+              set.contains(x);
+            } else if (op < reads + inserts) {
+              set.add(x);
+            } else {
+              set.remove(x);
+            }
+            now = System.nanoTime();
+            histogram.record(now - begin);
+            count++;
+          }
+          counts[id] = count;
+        }
+      };
+      workers[t].start();
+    }
+    deadline[0] = System.nanoTime() + millis * 1000000L;
+    start.await();
+    long begin = System.nanoTime();
+    long ops = 0;
+    for (int t = 0; t < threads; t++) {
+      workers[t].join();
+      latency.add(histograms[t]);
+      ops += counts[t];
+    }
+    return ops / ((System.nanoTime() - begin) / 1000.0);
+  }
+
+  /**
+   * Histogram with buckets of equal relative width, in the manner of
+   * HdrHistogram: values below <code>2^SUB_BITS</code> are exact, and above
+   * that every power of two is split into <code>2^SUB_BITS</code> buckets,
+   * so any recorded value is reported within about 3%. Not thread-safe;
+   * every thread records into its own and the results are added up.
+   */
+  static final class LatencyHistogram {
+    static final int SUB_BITS = 5;
+    static final int SUB = 1 << SUB_BITS;
+    final long[] counts = new long[(64 - SUB_BITS) * SUB];
+    long total;
+    long max;
+
+    void record(long value) {
+      counts[index(Math.max(0, value))]++;
+      total++;
+      max = Math.max(max, value);
+    }
+
+    void add(LatencyHistogram other) {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] += other.counts[i];
+      }
+      total += other.total;
+      max = Math.max(max, other.max);
+    }
+
+    /**
+     * @param percent percentage of recorded values
+     * @return highest value in the bucket holding that percentile
+     */
+    long percentile(double percent) {
+      long rank = (long) Math.ceil(total * percent / 100.0);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return Math.min(highest(i), max);
+        }
+      }
+      return 0;
+    }
+
+    long max() {
+      return max;
+    }
+
+    static int index(long value) {
+      if (value < SUB) {
+        return (int) value;
+      }
+      int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+      return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) - SUB);
+    }
+
+    static long highest(int index) {
+      if (index < SUB) {
+        return index;
+      }
+      int shift = (index >> SUB_BITS) - 1;
+      long top = SUB + (index & (SUB - 1));
+      return ((top + 1) << shift) - 1;
+    }
+  }
+}
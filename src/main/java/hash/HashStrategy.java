@@ -0,0 +1,129 @@
+/*
+ * HashStrategy.java
+ *
+ * Created on October 18, 2026, 6:05 PM
+ */
+
+package hash;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How a hash set turns an item into a hash code. Sets reduce the result to a
+ * bucket index themselves, so a strategy only has to spread entropy into
+ * the bits the set uses. Sequential ids and short strings have poorly mixed
+ * low bits, and <code>IDENTITY</code> then makes hot buckets.
+ */
+public interface HashStrategy {
+  /**
+   * Mix an item's 32-bit hash code.
+   * @param h hash code
+   * @return mixed hash code
+   */
+  int mix(int h);
+
+  /**
+   * Hash code of an object.
+   * @param x item to hash
+   * @return hash code
+   */
+  default int hash(Object x) {
+    return mix(x.hashCode());
+  }
+
+  /**
+   * Hash code of an <code>int</code>, same as for the boxed value.
+   * @param x item to hash
+   * @return hash code
+   */
+  default int hash(int x) {
+    return mix(x);
+  }
+
+  /**
+   * Hash code of a <code>long</code>, by default the same as for the boxed
+   * value.
+   * @param x item to hash
+   * @return hash code
+   */
+  default int hash(long x) {
+    return mix((int) (x ^ (x >>> 32)));
+  }
+
+  /**
+   * The item's own <code>hashCode</code>, unchanged.
+   */
+  HashStrategy IDENTITY = h -> h;
+
+  /**
+   * Murmur3 finalizer. Every input bit affects every output bit.
+   */
+  HashStrategy MURMUR3 = new HashStrategy() {
+    public int mix(int h) {
+      h ^= h >>> 16;
+      h *= 0x85EBCA6B;
+      h ^= h >>> 13;
+      h *= 0xC2B2AE35;
+      h ^= h >>> 16;
+      return h;
+    }
+    public int hash(long x) {
+      x ^= x >>> 33;
+      x *= 0xFF51AFD7ED558CCDL;
+      x ^= x >>> 33;
+      x *= 0xC4CEB9FE1A85EC53L;
+      x ^= x >>> 33;
+      return (int) (x ^ (x >>> 32));
+    }
+  };
+
+  /**
+   * xxHash32 of the 4-byte hash code, with seed zero.
+   */
+  HashStrategy XXHASH = new XXHash(0);
+
+  /**
+   * xxHash32 with a random seed. Give every set its own instance, so that
+   * colliding keys found against one set do not collide in another.
+   * @return new strategy
+   */
+  static HashStrategy seeded() {
+    return new XXHash(ThreadLocalRandom.current().nextInt());
+  }
+
+  /**
+   * xxHash32 with a given seed.
+   * @param seed seed
+   * @return new strategy
+   */
+  static HashStrategy seeded(int seed) {
+    return new XXHash(seed);
+  }
+
+  /**
+   * xxHash32 of a single 4-byte lane.
+   */
+  final class XXHash implements HashStrategy {
+    static final int PRIME2 = 0x85EBCA77;
+    static final int PRIME3 = 0xC2B2AE3D;
+    static final int PRIME4 = 0x27D4EB2F;
+    static final int PRIME5 = 0x165667B1;
+    private final int seed;
+
+    XXHash(int seed) {
+      this.seed = seed;
+    }
+
+    public int mix(int h) {
+      int acc = seed + PRIME5 + 4;
+      acc += h * PRIME3;
+      acc = Integer.rotateLeft(acc, 17) * PRIME4;
+      acc ^= acc >>> 15;
+      acc *= PRIME2;
+      acc ^= acc >>> 13;
+      acc *= PRIME3;
+      acc ^= acc >>> 16;
+      return acc;
+    }
+  }
+}
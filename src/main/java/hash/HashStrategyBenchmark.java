@@ -0,0 +1,133 @@
+/*
+ * HashStrategyBenchmark.java
+ *
+ * Created on October 18, 2026, 6:40 PM
+ */
+
+package hash;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares hash strategies on poorly distributed keys. For every key pattern
+ * and strategy, fills a <code>StripedHashSet</code> and reports the bucket
+ * length distribution, then runs a mixed workload (80% contains, 10% add,
+ * 10% remove) over the same keys and reports throughput.
+ * <p>
+ * Usage: <code>HashStrategyBenchmark [threads] [keys] [millis]</code>
+ */
+public class HashStrategyBenchmark {
+  static final int DEFAULT_KEYS = 1 << 18;
+  static final int DEFAULT_MILLIS = 1000;
+  static final int CAPACITY = 1024;
+  static final String[] PATTERNS = { "sequential", "strided", "strings" };
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int keys = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_KEYS;
+    int millis = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MILLIS;
+    String[] names = { "identity", "murmur3", "xxhash", "seeded" };
+    HashStrategy[] strategies = { HashStrategy.IDENTITY, HashStrategy.MURMUR3, HashStrategy.XXHASH,
+        HashStrategy.seeded() };
+    System.out.printf("threads %d, keys %d%n", threads, keys);
+    System.out.println("pattern\tstrategy\tbuckets\tempty%\tmax\tstddev\tMops/s");
+    for (String pattern : PATTERNS) {
+      Object[] items = keys(pattern, keys);
+      for (int s = 0; s < strategies.length; s++) {
+        StripedHashSet<Object> set = new StripedHashSet<Object>(CAPACITY, false, strategies[s]);
+        for (Object x : items) {
+          set.add(x);
+        }
+        List<Object>[] table = set.table;
+        int empty = 0, max = 0;
+        double sum = 0, squares = 0;
+        for (List<Object> bucket : table) {
+          int length = bucket == null ? 0 : bucket.size();
+          empty += length == 0 ? 1 : 0;
+          max = Math.max(max, length);
+          sum += length;
+          squares += (double) length * length;
+        }
+        double mean = sum / table.length;
+        double stddev = Math.sqrt(squares / table.length - mean * mean);
+        double mops = mixedRun(new StripedHashSet<Object>(CAPACITY, false, strategies[s]), items,
+            threads, millis);
+        System.out.printf("%s\t%s\t%d\t%.1f\t%d\t%.2f\t%.2f%n", pattern, names[s], table.length,
+            100.0 * empty / table.length, max, stddev, mops);
+      }
+    }
+  }
+
+  /**
+   * Keys that often defeat <code>hashCode</code> as a bucket index.
+   */
+  static Object[] keys(String pattern, int count) {
+    Object[] items = new Object[count];
+    for (int i = 0; i < count; i++) {
+      switch (pattern) {
+      case "sequential":
+        items[i] = i;
+        break;
+      case "strided":
+        items[i] = i * CAPACITY;   // multiples of the table length
+        break;
+      default:
+        items[i] = "k" + i;        // short strings share most characters
+        break;
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Preload half the keys, then run the mixed workload for a while.
+   * @return throughput in millions of operations per second
+   */
+  static double mixedRun(final StripedHashSet<Object> set, final Object[] items, int threads,
+      final int millis) throws Exception {
+    for (int i = 0; i < items.length; i += 2) {
+      set.add(items[i]);
+    }
+    final CyclicBarrier start = new CyclicBarrier(threads + 1);
+    final AtomicLong ops = new AtomicLong();
+    final long[] deadline = new long[1];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      workers[t] = new Thread() {
+        public void run() {
+          try {
+            start.await();
+          } catch (Exception ex) {
+            return;
+          }
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long count = 0;
+          while ((count & 0xFF) != 0 || System.nanoTime() < deadline[0]) {
+            Object x = items[random.nextInt(items.length)];
+            int op = random.nextInt(10);
+            if (op == 0) {
+              set.add(x);
+            } else if (op == 1) {
+              set.remove(x);
+            } else {
+              set.contains(x);
+            }
+            count++;
+          }
+          ops.addAndGet(count);
+        }
+      };
+      workers[t].start();
+    }
+    deadline[0] = System.nanoTime() + millis * 1000000L;
+    start.await();
+    long begin = System.nanoTime();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return ops.get() / ((System.nanoTime() - begin) / 1000.0);
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * IntStripedHashSet.java
+ *
+ * Created on October 18, 2026, 3:40 PM
+ */
+
+package hash;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped hash set of primitive <code>int</code> values. Each stripe lock
+ * guards its own open-addressed (linear probing) <code>int[]</code> table,
+ * so keys are never boxed and there are no per-bucket list headers. Each
+ * stripe doubles its own table under its own lock, so a resize never stalls
+ * the other stripes.
+ */
+public class IntStripedHashSet {
+  static final int FREE = 0;          // marks an empty slot
+  static final int MIN_CAPACITY = 8;  // smallest stripe table
+  final Lock[] locks;
+  final int[][] table;
+  final int[] count;
+  final HashStrategy strategy;
+  boolean hasFree;                    // FREE itself is a member, guarded by its stripe lock
+
+  /**
+   * Constructor
+   * @param capacity initial number of slots, spread over the stripes
+   */
+  public IntStripedHashSet(int capacity) {
+    this(capacity, 16);
+  }
+
+  /**
+   * Constructor
+   * @param capacity initial number of slots, spread over the stripes
+   * @param stripes number of locks
+   */
+  public IntStripedHashSet(int capacity, int stripes) {
+    this(capacity, stripes, HashStrategy.MURMUR3);
+  }
+
+  /**
+   * Constructor
+   * @param capacity initial number of slots, spread over the stripes
+   * @param stripes number of locks
+   * @param strategy maps items to hash codes, should mix well since
+   * sequential keys are common
+   */
+  public IntStripedHashSet(int capacity, int stripes, HashStrategy strategy) {
+    this.strategy = strategy;
+    locks = new Lock[stripes];
+    table = new int[stripes][];
+    count = new int[stripes];
+    int perStripe = Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity / stripes) * 2 - 1);
+    for (int j = 0; j < stripes; j++) {
+      locks[j] = new ReentrantLock();
+      table[j] = new int[perStripe];
+    }
+  }
+
+  /**
+   * Is item in set?
+   * @param x item to test
+   * @return <code>true</code> iff item present
+   */
+  public boolean contains(int x) {
+    int h = strategy.hash(x);
+    int stripe = stripe(h);
+    locks[stripe].lock();
+    try {
+      if (x == FREE) {
+        return hasFree;
+      }
+      return indexOf(table[stripe], x, h) >= 0;
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   * Add item to set
+   * @param x item to add
+   * @return <code>true</code> iff set changed
+   */
+  public boolean add(int x) {
+    int h = strategy.hash(x);
+    int stripe = stripe(h);
+    locks[stripe].lock();
+    try {
+      if (x == FREE) {
+        boolean result = !hasFree;
+        hasFree = true;
+        return result;
+      }
+      int[] slots = table[stripe];
+      int mask = slots.length - 1;
+      for (int i = slot(h, mask); ; i = (i + 1) & mask) {
+        if (slots[i] == x) {
+          return false;
+        } else if (slots[i] == FREE) {
+          slots[i] = x;
+          if (++count[stripe] > (slots.length >> 2) * 3) {
+            table[stripe] = resize(slots);
+          }
+          return true;
+        }
+      }
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   * Remove item from set
+   * @param x item to remove
+   * @return <code>true</code> iff set changed
+   */
+  public boolean remove(int x) {
+    int h = strategy.hash(x);
+    int stripe = stripe(h);
+    locks[stripe].lock();
+    try {
+      if (x == FREE) {
+        boolean result = hasFree;
+        hasFree = false;
+        return result;
+      }
+      int[] slots = table[stripe];
+      int i = indexOf(slots, x, h);
+      if (i < 0) {
+        return false;
+      }
+      delete(slots, i);
+      count[stripe]--;
+      return true;
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   * Number of items. Not synchronized, so only exact when quiescent.
+   * @return number of items
+   */
+  public int size() {
+    int size = hasFree ? 1 : 0;
+    for (int c : count) {
+      size += c;
+    }
+    return size;
+  }
+
+  private int stripe(int h) {
+    return Math.abs(h % locks.length);
+  }
+
+  /**
+   * Home slot uses the bits of the hash not consumed by the stripe index.
+   */
+  private int slot(int h, int mask) {
+    return ((h & 0x7FFFFFFF) / locks.length) & mask;
+  }
+
+  private int indexOf(int[] slots, int x, int h) {
+    int mask = slots.length - 1;
+    for (int i = slot(h, mask); slots[i] != FREE; i = (i + 1) & mask) {
+      if (slots[i] == x) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Backward-shift deletion: refill the hole with later members of the
+   * probe run so that no tombstones are needed.
+   */
+  private void delete(int[] slots, int hole) {
+    int mask = slots.length - 1;
+    for (int i = (hole + 1) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+      int home = slot(strategy.hash(slots[i]), mask);
+      // move slots[i] back iff its home is not cyclically in (hole, i]
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        slots[hole] = slots[i];
+        hole = i;
+      }
+    }
+    slots[hole] = FREE;
+  }
+
+  private int[] resize(int[] oldSlots) {
+    int[] slots = new int[2 * oldSlots.length];
+    int mask = slots.length - 1;
+    for (int x : oldSlots) {
+      if (x != FREE) {
+        int i = slot(strategy.hash(x), mask);
+        while (slots[i] != FREE) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = x;
+      }
+    }
+    return slots;
+  }
+
+}
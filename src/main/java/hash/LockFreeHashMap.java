@@ -0,0 +1,398 @@
+/*
+ * LockFreeHashMap.java
+ *
+ * Created on October 18, 2026, 2:20 PM
+ */
+
+package hash;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Lock-free split-ordered hash map. Uses the recursive split-ordering of
+ * <code>LockFreeHashSet</code>, but nodes carry a value and are ordered by a
+ * 64-bit split-order key built from the full 32-bit hash code. Distinct keys
+ * whose hash codes collide share a split-order key and are told apart with
+ * <code>equals</code>.
+ * <p>
+ * A node is removed in two steps: its value is swung to <code>null</code>
+ * (the linearization point), then its next reference is marked so that later
+ * traversals snip it out.
+ * @param K key type
+ * @param V value type
+ */
+public class LockFreeHashMap<K, V> {
+  static final int MAX_BUCKET_BITS = 28;
+  private static final double THRESHOLD = 4.0;
+  private static final AtomicReferenceFieldUpdater<Node, Object> VALUE
+      = AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+  protected SegmentTable<Node> bucket;
+  protected AtomicInteger bucketSize;
+  protected AtomicInteger setSize;
+  protected final HashStrategy strategy;
+
+  /**
+   * Constructor
+   *
+   * @param capacity initial number of buckets, the table grows past it on demand
+   */
+  public LockFreeHashMap(int capacity) {
+    this(capacity, HashStrategy.IDENTITY);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param capacity initial number of buckets, the table grows past it on demand
+   * @param strategy maps keys to hash codes
+   */
+  public LockFreeHashMap(int capacity, HashStrategy strategy) {
+    this.strategy = strategy;
+    bucket = new SegmentTable<Node>(MAX_BUCKET_BITS);
+    Node head = new Node(0L, null, null);
+    head.next.set(new Node(Long.MAX_VALUE, null, null), false);
+    bucket.set(0, head);
+    int initial = Integer.highestOneBit(Math.max(2, Math.min(capacity, bucket.capacity())));
+    bucketSize = new AtomicInteger(initial);
+    setSize = new AtomicInteger(0);
+  }
+
+  /**
+   * Value for key
+   *
+   * @param key key to look up
+   * @return value, or <code>null</code> if key absent
+   */
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int hash = hash(key);
+    Window window = find(getBucket(hash), regularKey(hash), key);
+    return window.match ? (V) window.curr.value : null;
+  }
+
+  /**
+   * Is key present?
+   *
+   * @param key key to look up
+   * @return <code>true</code> iff key is bound to a value
+   */
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Bind key to value, unless already bound.
+   *
+   * @param key   key to bind
+   * @param value new value, not <code>null</code>
+   * @return existing value, or <code>null</code> if value was added
+   */
+  @SuppressWarnings("unchecked")
+  public V putIfAbsent(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    long so = regularKey(hash);
+    Node start = getBucket(hash);
+    while (true) {
+      Window window = find(start, so, key);
+      if (window.match) {
+        V old = (V) window.curr.value;
+        if (old != null) {
+          return old;
+        }
+        window.curr.mark(); // help a remover that has not marked it yet
+      } else if (insert(window, new Node(so, key, value))) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Bind key to value, replacing any existing binding.
+   *
+   * @param key   key to bind
+   * @param value new value, not <code>null</code>
+   * @return previous value, or <code>null</code> if key was absent
+   */
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    long so = regularKey(hash);
+    Node start = getBucket(hash);
+    while (true) {
+      Window window = find(start, so, key);
+      if (window.match) {
+        V old = (V) window.curr.value;
+        if (old != null) {
+          if (VALUE.compareAndSet(window.curr, old, value)) {
+            return old;
+          }
+        } else {
+          window.curr.mark();
+        }
+      } else if (insert(window, new Node(so, key, value))) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Replace value, only if key is present.
+   *
+   * @param key   key to rebind
+   * @param value new value, not <code>null</code>
+   * @return previous value, or <code>null</code> if key was absent
+   */
+  @SuppressWarnings("unchecked")
+  public V replace(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    Window window = find(getBucket(hash), regularKey(hash), key);
+    if (!window.match) {
+      return null;
+    }
+    while (true) {
+      V old = (V) window.curr.value;
+      if (old == null || VALUE.compareAndSet(window.curr, old, value)) {
+        return old;
+      }
+    }
+  }
+
+  /**
+   * Replace value, only if key is currently bound to expected value.
+   *
+   * @param key      key to rebind
+   * @param expected value expected
+   * @param value    new value, not <code>null</code>
+   * @return <code>true</code> iff value was replaced
+   */
+  public boolean replace(K key, V expected, V value) {
+    if (expected == null || value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    Window window = find(getBucket(hash), regularKey(hash), key);
+    while (window.match) {
+      Object old = window.curr.value;
+      if (old == null || !old.equals(expected)) {
+        return false;
+      }
+      if (VALUE.compareAndSet(window.curr, old, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Value for key, computing and adding it if absent. The function may be
+   * called by several racing threads, but only one result is added.
+   *
+   * @param key      key to look up
+   * @param function computes value for absent key
+   * @return current (existing or computed) value, or <code>null</code> if
+   *         the function returned <code>null</code>
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+    V value = get(key);
+    if (value != null) {
+      return value;
+    }
+    value = function.apply(key);
+    if (value == null) {
+      return null;
+    }
+    V old = putIfAbsent(key, value);
+    return old == null ? value : old;
+  }
+
+  /**
+   * Remove key
+   *
+   * @param key key to remove
+   * @return value removed, or <code>null</code> if key was absent
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    int hash = hash(key);
+    long so = regularKey(hash);
+    Node start = getBucket(hash);
+    Window window = find(start, so, key);
+    if (!window.match) {
+      return null;
+    }
+    Node curr = window.curr;
+    while (true) {
+      V old = (V) curr.value;
+      if (old == null) {
+        return null; // someone else removed it
+      }
+      if (VALUE.compareAndSet(curr, old, null)) {
+        curr.mark();
+        setSize.getAndDecrement();
+        find(start, so, key); // snip it out
+        return old;
+      }
+    }
+  }
+
+  /**
+   * Number of keys, exact only when quiescent.
+   *
+   * @return number of keys
+   */
+  public int size() {
+    return setSize.get();
+  }
+
+  private boolean insert(Window window, Node node) {
+    node.next.set(window.curr, false);
+    if (!window.pred.next.compareAndSet(window.curr, node, false, false)) {
+      return false;
+    }
+    int setSizeNow = setSize.getAndIncrement();
+    int bucketSizeNow = bucketSize.get();
+    if (setSizeNow / (double) bucketSizeNow > THRESHOLD && bucketSizeNow < bucket.capacity())
+      bucketSize.compareAndSet(bucketSizeNow, 2 * bucketSizeNow);
+    return true;
+  }
+
+  /**
+   * Spread hash code so that keys differing only in high bits land in
+   * different buckets.
+   */
+  int hash(Object key) {
+    int h = strategy.hash(key);
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Split-order key of a regular node: reversed hash, low bit set.
+   */
+  static long regularKey(int hash) {
+    return ((Integer.reverse(hash) & 0xFFFFFFFFL) << 1) | 1L;
+  }
+
+  /**
+   * Split-order key of a bucket sentinel: reversed index, low bit clear.
+   */
+  static long sentinelKey(int index) {
+    return (Integer.reverse(index) & 0xFFFFFFFFL) << 1;
+  }
+
+  private Node getBucket(int hash) {
+    int myBucket = hash & (bucketSize.get() - 1);
+    Node b = bucket.get(myBucket);
+    if (b == null)
+      b = initializeBucket(myBucket);
+    return b;
+  }
+
+  private Node initializeBucket(int myBucket) {
+    int parent = myBucket & ~Integer.highestOneBit(myBucket);
+    Node start = bucket.get(parent);
+    if (start == null)
+      start = initializeBucket(parent);
+    long so = sentinelKey(myBucket);
+    Node sentinel;
+    while (true) {
+      Window window = find(start, so, null);
+      if (window.match) {
+        sentinel = window.curr;
+        break;
+      }
+      Node entry = new Node(so, null, null);
+      entry.next.set(window.curr, false);
+      if (window.pred.next.compareAndSet(window.curr, entry, false, false)) {
+        sentinel = entry;
+        break;
+      }
+    }
+    bucket.set(myBucket, sentinel);
+    return sentinel;
+  }
+
+  static class Node {
+    final long so;
+    final Object key;
+    volatile Object value;
+    final AtomicMarkableReference<Node> next;
+
+    Node(long so, Object key, Object value) {
+      this.so = so;
+      this.key = key;
+      this.value = value;
+      this.next = new AtomicMarkableReference<Node>(null, false);
+    }
+
+    /**
+     * Logically delete node by marking its next reference.
+     */
+    void mark() {
+      Node succ = next.getReference();
+      while (!next.attemptMark(succ, true)) {
+        if (next.isMarked())
+          return;
+        succ = next.getReference();
+      }
+    }
+
+    boolean matches(long so, Object key) {
+      if (this.so != so)
+        return false;
+      return key == null ? this.key == null : key.equals(this.key);
+    }
+  }
+
+  static class Window {
+    public Node pred;
+    public Node curr;
+    public boolean match;
+
+    Window(Node pred, Node curr, boolean match) {
+      this.pred = pred;
+      this.curr = curr;
+      this.match = match;
+    }
+  }
+
+  /**
+   * Returns the node matching split-order key and key if present, otherwise
+   * the first node with a larger split-order key, along with its predecessor.
+   * Marked nodes met on the way are snipped out.
+   */
+  Window find(Node head, long so, Object key) {
+    Node pred = null, curr = null, succ = null;
+    boolean[] marked = { false }; // is curr marked?
+    retry: while (true) {
+      pred = head;
+      curr = pred.next.getReference();
+      while (true) {
+        succ = curr.next.get(marked);
+        while (marked[0]) { // replace curr if marked
+          if (!pred.next.compareAndSet(curr, succ, false, false))
+            continue retry;
+          curr = succ;
+          succ = curr.next.get(marked);
+        }
+        if (curr.so > so)
+          return new Window(pred, curr, false);
+        if (curr.matches(so, key))
+          return new Window(pred, curr, true);
+        pred = curr;
+        curr = succ;
+      }
+    }
+  }
+}
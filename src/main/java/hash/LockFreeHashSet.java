@@ -10,27 +10,54 @@
 
 package hash;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lists.ConcurrentSet;
 
 /**
+ * Split-ordered lock-free hash set. Buckets are shortcuts into a single
+ * <code>BucketList</code>, indexed through a lazily-allocated segment table,
+ * so the set keeps doubling its bucket count as it grows. Split-order keys
+ * use the whole 32-bit hash code, and items whose hash codes collide are
+ * told apart by <code>equals</code>.
  * @param T item type
  * @author Maurice Herlihy
  */
-public class LockFreeHashSet<T> {
-  protected BucketList<T>[] bucket;
+public class LockFreeHashSet<T> implements ConcurrentSet<T>, Iterable<T> {
+  static final int MAX_BUCKET_BITS = 28;
+  protected SegmentTable<BucketList<T>> bucket;
   protected AtomicInteger bucketSize;
   protected AtomicInteger setSize;
+  protected final HashStrategy strategy;
   private static final double THRESHOLD = 4.0;
 
   /**
    * Constructor
    * 
-   * @param capacity max number of bucket
+   * @param capacity initial number of buckets, the table grows past it on demand
    */
   public LockFreeHashSet(int capacity) {
-    bucket = (BucketList<T>[]) new BucketList[capacity];
-    bucket[0] = new BucketList<T>();
-    bucketSize = new AtomicInteger(2);
+    this(capacity, HashStrategy.IDENTITY);
+  }
+
+  /**
+   * Constructor
+   * 
+   * @param capacity initial number of buckets, the table grows past it on demand
+   * @param strategy maps items to hash codes
+   */
+  public LockFreeHashSet(int capacity, HashStrategy strategy) {
+    this.strategy = strategy;
+    bucket = new SegmentTable<BucketList<T>>(MAX_BUCKET_BITS);
+    bucket.set(0, new BucketList<T>(strategy));
+    int initial = Integer.highestOneBit(Math.max(2, Math.min(capacity, bucket.capacity())));
+    bucketSize = new AtomicInteger(initial);
     setSize = new AtomicInteger(0);
   }
 
@@ -41,7 +68,7 @@ public class LockFreeHashSet<T> {
    * @return <code>true</code> iff set changed.
    */
   public boolean add(T x) {
-    int myBucket = Math.abs(BucketList.hashCode(x) % bucketSize.get());
+    int myBucket = BucketList.hashCode(x, strategy) & (bucketSize.get() - 1);
     BucketList<T> b = getBucketList(myBucket);
     if (!b.add(x))
       return false;
@@ -49,12 +76,53 @@ public class LockFreeHashSet<T> {
     int bucketSizeNow = bucketSize.get();
     // 只要链表中间持有4个，调节大小。
     // bucketSize 会导致投影的位置出现变化!
-    if (setSizeNow / (double) bucketSizeNow > THRESHOLD)
+    if (setSizeNow / (double) bucketSizeNow > THRESHOLD && bucketSizeNow < bucket.capacity())
       // 防止其他人同时调节
       bucketSize.compareAndSet(bucketSizeNow, 2 * bucketSizeNow);
     return true;
   }
 
+  /**
+   * Add every item. Items are sorted into split order, so each bucket's
+   * items are contiguous and are spliced in during a single pass over that
+   * bucket, and the table grows once at the end.
+   * 
+   * @param items items to add
+   * @return <code>true</code> iff set changed.
+   */
+  public boolean addAll(Collection<? extends T> items) {
+    T[] xs = (T[]) items.toArray();
+    // reversed hash code in high word, flipped so signed order is split
+    // order, and index in low word
+    long[] order = new long[xs.length];
+    for (int i = 0; i < xs.length; i++) {
+      int reversed = Integer.reverse(BucketList.hashCode(xs[i], strategy));
+      order[i] = ((long) (reversed ^ Integer.MIN_VALUE) << 32) | i;
+    }
+    Arrays.sort(order);
+    T[] sorted = Arrays.copyOf(xs, xs.length);
+    long[] keys = new long[xs.length];
+    for (int i = 0; i < xs.length; i++) {
+      sorted[i] = xs[(int) order[i]];
+      keys[i] = BucketList.regularKey(Integer.reverse((int) (order[i] >>> 32) ^ Integer.MIN_VALUE));
+    }
+    int added = 0;
+    int mask = bucketSize.get() - 1;
+    for (int i = 0, end; i < sorted.length; i = end) {
+      int myBucket = BucketList.hashCode(sorted[i], strategy) & mask;
+      for (end = i + 1; end < sorted.length
+          && (BucketList.hashCode(sorted[end], strategy) & mask) == myBucket; end++) {}
+      added += getBucketList(myBucket).addSorted(sorted, keys, i, end);
+    }
+    int setSizeNow = setSize.addAndGet(added);
+    int bucketSizeNow = bucketSize.get();
+    while (setSizeNow / (double) bucketSizeNow > THRESHOLD && bucketSizeNow < bucket.capacity()) {
+      bucketSize.compareAndSet(bucketSizeNow, 2 * bucketSizeNow);
+      bucketSizeNow = bucketSize.get();
+    }
+    return added > 0;
+  }
+
   /**
    * Remove item from set
    * 
@@ -62,42 +130,153 @@ public class LockFreeHashSet<T> {
    * @return <code>true</code> iff set changed.
    */
   public boolean remove(T x) {
-    int myBucket = Math.abs(BucketList.hashCode(x) % bucketSize.get());
+    int myBucket = BucketList.hashCode(x, strategy) & (bucketSize.get() - 1);
     BucketList<T> b = getBucketList(myBucket);
     if (!b.remove(x)) {
       return false; // she's not there
     }
+    setSize.getAndDecrement();
     return true;
   }
 
   public boolean contains(T x) {
-    int myBucket = Math.abs(BucketList.hashCode(x) % bucketSize.get());
+    int myBucket = BucketList.hashCode(x, strategy) & (bucketSize.get() - 1);
     BucketList<T> b = getBucketList(myBucket);
     return b.contains(x);
   }
 
+  /**
+   * Remove every item. Each removal already starts at its own bucket, so
+   * there is nothing to share between them.
+   * 
+   * @param items items to remove
+   * @return <code>true</code> iff set changed.
+   */
+  public boolean removeAll(Collection<? extends T> items) {
+    boolean result = false;
+    for (T x : items) {
+      result |= remove(x);
+    }
+    return result;
+  }
+
+  /**
+   * Are all items in set?
+   * 
+   * @param items items to test
+   * @return <code>true</code> iff every item present
+   */
+  public boolean containsAll(Collection<? extends T> items) {
+    for (T x : items) {
+      if (!contains(x)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Weakly-consistent iterator: returns every item present for the whole
+   * iteration exactly once, and may or may not return items added or
+   * removed meanwhile. Never throws ConcurrentModificationException.
+   * 
+   * @return iterator over items
+   */
+  public Iterator<T> iterator() {
+    return bucket.get(0).iterator();
+  }
+
+  /**
+   * Weakly-consistent spliterator that splits the split-order key range at
+   * bucket sentinels, so that each half starts its traversal at a sentinel.
+   * 
+   * @return spliterator over items
+   */
+  public Spliterator<T> spliterator() {
+    return new SplitOrderSpliterator(0, 1L << BucketList.KEY_BITS);
+  }
+
+  /**
+   * @return sequential stream over items
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * @return parallel stream over items
+   */
+  public Stream<T> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * Items whose split-order keys are in <code>[loKey, hiKey)</code>. Both
+   * bounds are multiples of the range length, so <code>loKey</code> is
+   * always the sentinel key of some bucket.
+   */
+  private class SplitOrderSpliterator implements Spliterator<T> {
+    private long loKey;
+    private final long hiKey;
+    private Iterator<T> items; // started on first advance
+
+    SplitOrderSpliterator(long loKey, long hiKey) {
+      this.loKey = loKey;
+      this.hiKey = hiKey;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (items == null) {
+        items = getBucketList(BucketList.sentinelIndex(loKey)).iterator(hiKey);
+      }
+      if (!items.hasNext()) {
+        return false;
+      }
+      action.accept(items.next());
+      return true;
+    }
+
+    public Spliterator<T> trySplit() {
+      long mid = (loKey + hiKey) >>> 1;
+      // only split at sentinels of buckets the table already uses
+      if (items != null || hiKey - loKey < 4
+          || Integer.compareUnsigned(BucketList.sentinelIndex(mid), bucketSize.get()) >= 0) {
+        return null;
+      }
+      Spliterator<T> prefix = new SplitOrderSpliterator(loKey, mid);
+      loKey = mid;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return (long) (setSize.get() * ((hiKey - loKey) / (double) (1L << BucketList.KEY_BITS)));
+    }
+
+    public int characteristics() {
+      return DISTINCT | NONNULL | CONCURRENT;
+    }
+  }
+
   private BucketList<T> getBucketList(int myBucket) {
-    if (bucket[myBucket] == null)
-      initializeBucket(myBucket);
-    return bucket[myBucket];
+    BucketList<T> b = bucket.get(myBucket);
+    if (b == null)
+      b = initializeBucket(myBucket);
+    return b;
   }
 
-  private void initializeBucket(int myBucket) {
+  private BucketList<T> initializeBucket(int myBucket) {
     int parent = getParent(myBucket);
-    if (bucket[parent] == null)
-      initializeBucket(parent);
     // 在构建parent 的时候，
-    BucketList<T> b = bucket[parent].getSentinel(myBucket);
-    if (b != null)
-      bucket[myBucket] = b;
+    BucketList<T> b = getBucketList(parent).getSentinel(myBucket);
+    // racing initializers find the same sentinel, so either write is fine
+    bucket.set(myBucket, b);
+    return b;
   }
 
+  /**
+   * Parent bucket in the split order: clear the most significant bit.
+   */
   private int getParent(int myBucket) {
-    int parent = bucketSize.get();
-    do {
-      parent = parent >> 1;
-    } while (parent > myBucket);
-    parent = myBucket - parent;
-    return parent;
+    return myBucket & ~Integer.highestOneBit(myBucket);
   }
 }
@@ -0,0 +1,79 @@
+/*
+ * LockFreeHashSetBenchmark.java
+ *
+ * Created on October 18, 2026, 11:05 AM
+ */
+
+package hash;
+
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Multi-threaded growth benchmark for <code>LockFreeHashSet</code>.
+ * Every thread inserts its own slice of the key space into a set that starts
+ * with two buckets, and the benchmark reports insert throughput for each
+ * slice of the run, so any slowdown as the table grows shows up directly.
+ * The default run inserts 2<sup>24</sup> keys, well past the
+ * 2<sup>23</sup> distinct hash codes that a 24-bit split-order key could
+ * hold, and checks that every one of them is present at the end.
+ * <p>
+ * Usage: <code>LockFreeHashSetBenchmark [threads] [keys] [rounds]</code>
+ */
+public class LockFreeHashSetBenchmark {
+  static final int DEFAULT_KEYS = 1 << 24;
+  static final int DEFAULT_ROUNDS = 8;
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int keys = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_KEYS;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+    LockFreeHashSet<Integer> set = new LockFreeHashSet<Integer>(2);
+    int perRound = keys / rounds;
+    System.out.printf("threads %d, keys %d%n", threads, keys);
+    System.out.println("round\tsize\tbuckets\tMops/s");
+    for (int round = 0; round < rounds; round++) {
+      long elapsed = insertRound(set, threads, round * perRound, perRound);
+      System.out.printf("%d\t%d\t%d\t%.2f%n", round, set.setSize.get(), set.bucketSize.get(),
+          perRound / (double) elapsed);
+    }
+    for (int key = 0; key < rounds * perRound; key++) {
+      if (!set.contains(key)) {
+        System.out.println("ERROR: missing key " + key);
+        return;
+      }
+    }
+    System.out.println("all keys present");
+  }
+
+  /**
+   * Insert keys <code>[base, base + count)</code>, striped across threads.
+   * @return elapsed time in microseconds
+   */
+  static long insertRound(final LockFreeHashSet<Integer> set, final int threads,
+      final int base, final int count) throws Exception {
+    final CyclicBarrier start = new CyclicBarrier(threads + 1);
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int id = t;
+      workers[t] = new Thread() {
+        public void run() {
+          try {
+            start.await();
+          } catch (Exception ex) {
+            return;
+          }
+          for (int i = id; i < count; i += threads) {
+            set.add(base + i);
+          }
+        }
+      };
+      workers[t].start();
+    }
+    start.await();
+    long begin = System.nanoTime();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return (System.nanoTime() - begin) / 1000;
+  }
+}
@@ -12,6 +12,7 @@ package hash;
 
 import java.util.ArrayList;
 import java.util.List;
+import lists.ConcurrentSet;
 
 /**
  * Phased concurrent cuckoo hash set.
@@ -19,7 +20,7 @@ import java.util.List;
  * @param T item type
  * @author Maurice Herlihy
  */
-public abstract class PhasedCuckooHashSet<T> {
+public abstract class PhasedCuckooHashSet<T> implements ConcurrentSet<T> {
   /**
    * Number of entries in the table. Should be about twice the number of items.
    */
@@ -34,6 +35,8 @@ public abstract class PhasedCuckooHashSet<T> {
   private final static long multiplier = 0x5DEECE66DL;
   private final static long addend = 0xBL;
   private final static long mask = (1L << 31) - 1;
+  // maps items to hash codes, before the two hash functions
+  final HashStrategy strategy;
 
   /**
    * Create new set holding at least this many entries.
@@ -41,6 +44,17 @@ public abstract class PhasedCuckooHashSet<T> {
    * @param size number of entries to expect
    */
   public PhasedCuckooHashSet(int size) {
+    this(size, HashStrategy.IDENTITY);
+  }
+
+  /**
+   * Create new set holding at least this many entries.
+   * 
+   * @param size     number of entries to expect
+   * @param strategy maps items to hash codes
+   */
+  public PhasedCuckooHashSet(int size, HashStrategy strategy) {
+    this.strategy = strategy;
     capacity = size;
     // 为了 concurrent 而构建的两个
     table = (List<T>[][]) new java.util.ArrayList[2][capacity];
@@ -58,7 +72,7 @@ public abstract class PhasedCuckooHashSet<T> {
    * @return non-negative hash value
    */
   final public int hash0(T x) {
-    return (x.hashCode() & 0xffffff) % capacity;
+    return (strategy.hash(x) & 0xffffff) % capacity;
   }
 
   /**
@@ -68,7 +82,7 @@ public abstract class PhasedCuckooHashSet<T> {
    * @return non-negative hash value
    */
   final public synchronized int hash1(T x) {
-    return (int) Math.abs((x.hashCode() * multiplier + addend) & mask);
+    return (int) Math.abs((strategy.hash(x) * multiplier + addend) & mask);
   }
 
   /**
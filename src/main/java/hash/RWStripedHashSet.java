@@ -33,7 +33,16 @@ public class RWStripedHashSet<T> extends BaseHashSet<T>{
    * @param capacity Initial number of  buckets.
    */
   public RWStripedHashSet(int capacity) {
-    super(capacity);
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  
+  /**
+   * Constructor
+   * @param capacity Initial number of  buckets.
+   * @param strategy Maps items to hash codes.
+   */
+  public RWStripedHashSet(int capacity, HashStrategy strategy) {
+    super(capacity, strategy);
     locks  = new Lock[capacity];
     for (int j = 0; j < locks.length; j++) {
       locks[j] = new ReentrantLock();
@@ -66,7 +75,7 @@ public class RWStripedHashSet<T> extends BaseHashSet<T>{
   private void initializeFrom(List<T>[] oldTable) {
     for (List<T> bucket : oldTable) {
       for (T x : bucket) {
-        int myBucket = Math.abs(x.hashCode() % table.length);
+        int myBucket = Math.abs(hash(x) % table.length);
         table[myBucket].add(x);
       }
     }
@@ -77,7 +86,7 @@ public class RWStripedHashSet<T> extends BaseHashSet<T>{
    */
   public final void acquire(T x) {
     readLock.lock();
-    int myBucket = Math.abs(x.hashCode() % locks.length);
+    int myBucket = Math.abs(hash(x) % locks.length);
     locks[myBucket].lock();
   }
   /**
@@ -86,9 +95,24 @@ public class RWStripedHashSet<T> extends BaseHashSet<T>{
    */
   public void release(T x) {
     readLock.unlock();
-    int myBucket = Math.abs(x.hashCode() % locks.length);
+    int myBucket = Math.abs(hash(x) % locks.length);
     locks[myBucket].unlock();
   }
+  /**
+   * Bucket <code>j</code> and every bucket it splits into share lock
+   * <code>j % locks.length</code>, and the table cannot grow meanwhile.
+   */
+  protected void acquireBucket(int j) {
+    readLock.lock();
+    locks[j % locks.length].lock();
+  }
+  protected void releaseBucket(int j) {
+    readLock.unlock();
+    locks[j % locks.length].unlock();
+  }
+  protected int stripes() {
+    return locks.length;
+  }
   public boolean policy() {
     return size / table.length > 4;
   }
@@ -28,7 +28,15 @@ public class RefinableCuckooHashSet<T> extends PhasedCuckooHashSet<T>{
    * @param capacity Initial bucket size.
    */
   public RefinableCuckooHashSet(int capacity) {
-    super(capacity);
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  /**
+   * Concurrent Cuckoo hash set. Resizes lock array.
+   * @param capacity Initial bucket size.
+   * @param strategy Maps items to hash codes.
+   */
+  public RefinableCuckooHashSet(int capacity, HashStrategy strategy) {
+    super(capacity, strategy);
     locks = new ReentrantLock[2][capacity];
     for (int i = 0; i < 2; i++) {
       for (int j = 0; j < capacity; j++) {
@@ -12,6 +12,7 @@ package hash;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicMarkableReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -23,17 +24,41 @@ import java.util.concurrent.locks.ReentrantLock;
 public class RefinableHashSet<T> extends BaseHashSet<T>{
   AtomicMarkableReference<Thread> owner;
   volatile ReentrantLock[] locks;
+  // next stripe to help drain during an incremental resize
+  final AtomicInteger helper = new AtomicInteger();
   /**
    * Concurrent Cuckoo hash set. Resizes lock array.
    * @param capacity Initial number of buckets.
    */
   public RefinableHashSet(int capacity) {
-    super(capacity);
+    this(capacity, false);
+  }
+  /**
+   * Constructor
+   * @param capacity Initial number of buckets.
+   * @param incremental If true, resize moves a few buckets per call instead
+   * of rehashing the whole table while the set is quiesced. The lock array
+   * then trails the table by one doubling, so that an old bucket and the two
+   * new buckets it splits into share a lock.
+   */
+  public RefinableHashSet(int capacity, boolean incremental) {
+    this(capacity, incremental, HashStrategy.IDENTITY);
+  }
+  /**
+   * Constructor
+   * @param capacity Initial number of buckets.
+   * @param incremental If true, resize incrementally.
+   * @param strategy Maps items to hash codes.
+   */
+  public RefinableHashSet(int capacity, boolean incremental, HashStrategy strategy) {
+    super(capacity, strategy);
     locks = new ReentrantLock[capacity];
     for (int j = 0; j < capacity; j++) {
       locks[j] = new ReentrantLock();
     }
     owner = new AtomicMarkableReference<Thread>(null, false);
+    this.incremental = incremental;
+    this.lockFreeReads = true;
   }
   /**
    * Synchronize before adding, removing, or testing for item
@@ -49,7 +74,7 @@ public class RefinableHashSet<T> extends BaseHashSet<T>{
         // who != me => null or else
       } while (mark[0] && who != me);
       ReentrantLock[] oldLocks = this.locks;
-      int myBucket = Math.abs(x.hashCode() % oldLocks.length);
+      int myBucket = Math.abs(hash(x) % oldLocks.length);
       ReentrantLock oldLock = oldLocks[myBucket];
       oldLock.lock();  // acquire lock
       who = owner.get(mark);
@@ -65,7 +90,7 @@ public class RefinableHashSet<T> extends BaseHashSet<T>{
    * @param x item involved
    */
   public void release(T x) {
-    int myBucket = Math.abs(x.hashCode() % locks.length);
+    int myBucket = Math.abs(hash(x) % locks.length);
     locks[myBucket].unlock();
   }
   /**
@@ -80,6 +105,10 @@ public class RefinableHashSet<T> extends BaseHashSet<T>{
    * double the set size
    */
   public void resize() {
+    if (incremental) {
+      resizeIncrementally();
+      return;
+    }
     int oldCapacity = table.length;
     int newCapacity = 2 * oldCapacity;
     Thread me = Thread.currentThread();
@@ -89,29 +118,78 @@ public class RefinableHashSet<T> extends BaseHashSet<T>{
           return;
         }
         quiesce();
-        List<T>[] oldTable = table;
-        table = (List<T>[]) new List[newCapacity];
+        List<T>[] newTable = (List<T>[]) new List[newCapacity];
         for (int i = 0; i < newCapacity; i++)
-          table[i] = new ArrayList<T>();
+          newTable[i] = new ArrayList<T>();
         locks = new ReentrantLock[newCapacity];
         for (int j = 0; j < locks.length; j++) {
           locks[j] = new ReentrantLock();
         }
-        initializeFrom(oldTable);
+        initializeFrom(table, newTable);
+      } finally {
+        owner.set(null, false);       // restore prior state
+      }
+    }
+  }
+  /**
+   * Help drain a resize in progress, or start a new one. Starting refines
+   * the lock array to the current table size and swaps tables while the set
+   * is quiesced, the items move on later calls.
+   */
+  private void resizeIncrementally() {
+    if (oldTable != null) { // drain a stripe nobody else may be touching
+      ReentrantLock[] oldLocks = locks;
+      int stripe = Math.abs(helper.getAndIncrement() % oldLocks.length);
+      if (oldLocks[stripe].tryLock()) {
+        try {
+          List<T>[] old = oldTable;
+          if (old != null && locks == oldLocks) {
+            drainStripe(old, stripe, MIGRATE_STEP);
+          }
+        } finally {
+          oldLocks[stripe].unlock();
+        }
+      }
+      return;
+    }
+    int oldCapacity = table.length;
+    Thread me = Thread.currentThread();
+    if (owner.compareAndSet(null, me, false, true)) {
+      try {
+        if (table.length != oldCapacity || oldTable != null) {  // someone else resized first
+          return;
+        }
+        quiesce();
+        if (locks.length != oldCapacity) {
+          ReentrantLock[] newLocks = new ReentrantLock[oldCapacity];
+          for (int j = 0; j < newLocks.length; j++) {
+            newLocks[j] = new ReentrantLock();
+          }
+          locks = newLocks;
+        }
+        startMigration(oldCapacity);
       } finally {
         owner.set(null, false);       // restore prior state
       }
     }
   }
+  protected int stripes() {
+    return locks.length;
+  }
   public boolean policy() {
-    return size / table.length > 4;
+    return size / table.length > 4 || oldTable != null;
   }
-  private void initializeFrom(List<T>[] oldTable) {
+  /**
+   * Fill new table, then publish it: lock-free readers keep using the old
+   * table until then.
+   */
+  private void initializeFrom(List<T>[] oldTable, List<T>[] newTable) {
     for (List<T> bucket : oldTable) {
       for (T x : bucket) {        
-        int myBucket = Math.abs(x.hashCode() % table.length);
-        table[myBucket].add(x);
+        int myBucket = Math.abs(hash(x) % newTable.length);
+        newTable[myBucket].add(x);
       }
     }
+    table = newTable;
   }
 }
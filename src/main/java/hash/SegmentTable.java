@@ -0,0 +1,76 @@
+/*
+ * SegmentTable.java
+ *
+ * Created on October 18, 2026, 10:12 AM
+ */
+
+package hash;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lazily-allocated two-level array used as the bucket index of the
+ * split-ordered hash sets. A fixed-size directory points to segments that are
+ * allocated on first use, so the index can address many millions of buckets
+ * while only paying for the segments that are actually touched. Existing
+ * entries never move, so growing the table is never a global rehash.
+ * @param E entry type
+ */
+class SegmentTable<E> {
+  private final int segmentBits;
+  private final int segmentMask;
+  private final AtomicReferenceArray<AtomicReferenceArray<E>> directory;
+
+  /**
+   * Constructor
+   * @param indexBits number of bits in the largest index this table holds
+   */
+  SegmentTable(int indexBits) {
+    this.segmentBits = (indexBits + 1) / 2;
+    this.segmentMask = (1 << segmentBits) - 1;
+    this.directory = new AtomicReferenceArray<AtomicReferenceArray<E>>(1 << (indexBits - segmentBits));
+  }
+
+  /**
+   * Entry at given index
+   * @param index entry index
+   * @return entry, or <code>null</code> if never set
+   */
+  E get(int index) {
+    AtomicReferenceArray<E> segment = directory.get(index >>> segmentBits);
+    if (segment == null) {
+      return null;
+    }
+    return segment.get(index & segmentMask);
+  }
+
+  /**
+   * Set entry at given index, allocating its segment if necessary.
+   * @param index entry index
+   * @param entry new entry
+   */
+  void set(int index, E entry) {
+    segment(index >>> segmentBits).set(index & segmentMask, entry);
+  }
+
+  /**
+   * Largest number of entries this table can address.
+   * @return capacity
+   */
+  int capacity() {
+    return directory.length() << segmentBits;
+  }
+
+  private AtomicReferenceArray<E> segment(int dirIndex) {
+    AtomicReferenceArray<E> segment = directory.get(dirIndex);
+    if (segment == null) {
+      AtomicReferenceArray<E> fresh = new AtomicReferenceArray<E>(1 << segmentBits);
+      if (directory.compareAndSet(dirIndex, null, fresh)) {
+        segment = fresh;
+      } else { // someone else allocated it first
+        segment = directory.get(dirIndex);
+      }
+    }
+    return segment;
+  }
+}
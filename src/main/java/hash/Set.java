@@ -11,11 +11,12 @@
 package hash;
 
 import java.util.Iterator;
+import lists.ConcurrentSet;
 /**
  * Interface satisfied by various buckets
  * @author Maurice Herlihy
  */
-public interface Set<T> extends Iterable<T> {
+public interface Set<T> extends ConcurrentSet<T>, Iterable<T> {
   /**
    * add object with given key
    * @param x object to add
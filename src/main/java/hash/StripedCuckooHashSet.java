@@ -27,7 +27,16 @@ public class StripedCuckooHashSet<T> extends PhasedCuckooHashSet<T>{
    * @param capacity Internal array size.
    */
   public StripedCuckooHashSet(int capacity) {
-    super(capacity);
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  
+  /**
+   * Constructor
+   * @param capacity Internal array size.
+   * @param strategy Maps items to hash codes.
+   */
+  public StripedCuckooHashSet(int capacity, HashStrategy strategy) {
+    super(capacity, strategy);
     lock  = new ReentrantLock[2][capacity];
     for (int i = 0; i < 2; i++) {
       for (int j = 0; j < capacity; j++) {
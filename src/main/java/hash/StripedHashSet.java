@@ -12,6 +12,7 @@ package hash;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -22,19 +23,47 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class StripedHashSet<T> extends BaseHashSet<T>{
   final Lock[] locks;
+  // next stripe to help drain during an incremental resize
+  final AtomicInteger helper = new AtomicInteger();
   
   public StripedHashSet(int capacity) {
-    super(capacity);
+    this(capacity, false);
+  }
+  
+  /**
+   * Constructor
+   * @param capacity Initial number of buckets and locks.
+   * @param incremental If true, resize moves a few buckets per call instead
+   * of rehashing the whole table while holding every lock.
+   */
+  public StripedHashSet(int capacity, boolean incremental) {
+    this(capacity, incremental, HashStrategy.IDENTITY);
+  }
+  
+  /**
+   * Constructor
+   * @param capacity Initial number of buckets and locks.
+   * @param incremental If true, resize incrementally.
+   * @param strategy Maps items to hash codes.
+   */
+  public StripedHashSet(int capacity, boolean incremental, HashStrategy strategy) {
+    super(capacity, strategy);
     locks  = new Lock[capacity];
     for (int j = 0; j < locks.length; j++) {
       locks[j] = new ReentrantLock();
     }
+    this.incremental = incremental;
+    this.lockFreeReads = true;
   }
   
   /**
    * double the set size
    */
   public void resize() {
+    if (incremental) {
+      resizeIncrementally();
+      return;
+    }
     int oldCapacity = table.length;
     for (Lock lock : locks) {
       lock.lock();
@@ -44,31 +73,69 @@ public class StripedHashSet<T> extends BaseHashSet<T>{
         return; // someone beat us to it
       }
       int newCapacity  = 2 * oldCapacity;
-      List<T>[] oldTable = table;
-      table = (List<T>[]) new List[newCapacity];
+      List<T>[] newTable = (List<T>[]) new List[newCapacity];
       for (int i = 0; i < newCapacity; i++)
-        table[i] = new ArrayList<T>();
-      initializeFrom(oldTable);
+        newTable[i] = new ArrayList<T>();
+      initializeFrom(table, newTable);
     } finally {
       for (Lock lock : locks) {
         lock.unlock();
       }
     }
   }
-  private void initializeFrom(List<T>[] oldTable) {
+  /**
+   * Help drain a resize in progress, or start a new one. Starting only swaps
+   * tables while holding every lock, the items move on later calls.
+   */
+  private void resizeIncrementally() {
+    if (oldTable != null) { // drain a stripe nobody else may be touching
+      int stripe = Math.abs(helper.getAndIncrement() % locks.length);
+      if (locks[stripe].tryLock()) {
+        try {
+          List<T>[] old = oldTable;
+          if (old != null) {
+            drainStripe(old, stripe, MIGRATE_STEP);
+          }
+        } finally {
+          locks[stripe].unlock();
+        }
+      }
+      return;
+    }
+    int oldCapacity = table.length;
+    for (Lock lock : locks) {
+      lock.lock();
+    }
+    try {
+      if (oldCapacity != table.length || oldTable != null) {
+        return; // someone beat us to it
+      }
+      startMigration(locks.length);
+    } finally {
+      for (Lock lock : locks) {
+        lock.unlock();
+      }
+    }
+  }
+  /**
+   * Fill new table, then publish it: lock-free readers keep using the old
+   * table until then.
+   */
+  private void initializeFrom(List<T>[] oldTable, List<T>[] newTable) {
     for (List<T> bucket : oldTable) {
       for (T x : bucket) {
-        int myBucket = Math.abs(x.hashCode() % table.length);
-        table[myBucket].add(x);
+        int myBucket = Math.abs(hash(x) % newTable.length);
+        newTable[myBucket].add(x);
       }
     }
+    table = newTable;
   }
   /**
    * Synchronize before adding, removing, or testing for item
    * @param x item involved
    */
   public final void acquire(T x) {
-    int myBucket = Math.abs(x.hashCode() % locks.length);
+    int myBucket = Math.abs(hash(x) % locks.length);
     locks[myBucket].lock();
   }
   /**
@@ -76,10 +143,13 @@ public class StripedHashSet<T> extends BaseHashSet<T>{
    * @param x item involved
    */
   public void release(T x) {
-    int myBucket = Math.abs(x.hashCode() % locks.length);
+    int myBucket = Math.abs(hash(x) % locks.length);
     locks[myBucket].unlock();
   }
+  protected int stripes() {
+    return locks.length;
+  }
   public boolean policy() {
-    return size / table.length > 4;
+    return size / table.length > 4 || oldTable != null;
   }
 }
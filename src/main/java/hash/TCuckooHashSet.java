@@ -16,13 +16,14 @@ import java.util.Random;
 import java.util.TreeSet;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import lists.ConcurrentSet;
 
 /**
  * Concurrent Cuckoo hashing.
  * @param T Item type.
  * @author Maurice Herlihy
  */
-public class TCuckooHashSet<T> {
+public class TCuckooHashSet<T> implements ConcurrentSet<T> {
   volatile T[][] table;
   volatile int size;
   static final int LIMIT = 32;
@@ -30,12 +31,24 @@ public class TCuckooHashSet<T> {
   Lock[][] locks;
   // used for resizeing
   Random random= new Random();
+  // maps items to hash codes
+  final HashStrategy strategy;
   
   /**
    * Constructor
    * @param capacity Initial array size.
    */
   public TCuckooHashSet(int capacity) {
+    this(capacity, HashStrategy.IDENTITY);
+  }
+  
+  /**
+   * Constructor
+   * @param capacity Initial array size.
+   * @param strategy Maps items to hash codes.
+   */
+  public TCuckooHashSet(int capacity, HashStrategy strategy) {
+    this.strategy = strategy;
     locks = new Lock[2][LOCKS];
     table = (T[][]) new Object[2][capacity];
     size = capacity;
@@ -46,10 +59,10 @@ public class TCuckooHashSet<T> {
     }
   }
   private final int hash0(Object x) {
-    return Math.abs(x.hashCode() % size);
+    return Math.abs(strategy.hash(x) % size);
   }
   private final int hash1(Object x) {
-    random.setSeed(x.hashCode());
+    random.setSeed(strategy.hash(x));
     return random.nextInt(size);
   }
   
@@ -297,4 +310,4 @@ public class TCuckooHashSet<T> {
     }
     
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+/*
+ * ConcurrentSet.java
+ *
+ * Created on October 18, 2026, 10:30 PM
+ */
+
+package lists;
+
+/**
+ * Operations shared by every list-based and hash-based set, so that
+ * implementations can be swapped and compared behind one type. All methods
+ * may be called concurrently.
+ * @param T item type
+ */
+public interface ConcurrentSet<T> {
+  /**
+   * Add an element.
+   * @param x element to add
+   * @return true iff element was not there already
+   */
+  boolean add(T x);
+  /**
+   * Remove an element.
+   * @param x element to remove
+   * @return true iff element was present
+   */
+  boolean remove(T x);
+  /**
+   * Test whether element is present
+   * @param x element to test
+   * @return true iff element is present
+   */
+  boolean contains(T x);
+}
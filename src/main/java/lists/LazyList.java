@@ -10,15 +10,22 @@
 
 package lists;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Lazy list implementation: lock-free contains method.
+ * <p>
+ * Items are ordered by hash code, and <code>ceiling</code>,
+ * <code>floor</code>, <code>subSet</code> and <code>iterator</code> walk
+ * that order without locks, skipping marked nodes as <code>contains</code>
+ * does.
  * @param T Item type.
  * @author Maurice Herlihy
  */
-public class LazyList<T> {
+public class LazyList<T> implements ConcurrentSet<T>, Iterable<T> {
   /**
    * First list Node
    */
@@ -119,6 +126,94 @@ public class LazyList<T> {
       curr = curr.next;
     return curr.key == key && !curr.marked;
   }
+  /**
+   * Least element whose hash code is not less than item's
+   * @param item element to compare with
+   * @return matching element, or null if there is none
+   */
+  public T ceiling(T item) {
+    Node curr = ceilingNode(item.hashCode());
+    return curr.item;
+  }
+  /**
+   * Greatest element whose hash code is not greater than item's
+   * @param item element to compare with
+   * @return matching element, or null if there is none
+   */
+  public T floor(T item) {
+    int key = item.hashCode();
+    T last = null;
+    Node curr = this.head.next;
+    while (curr.key <= key && curr.item != null) {
+      if (!curr.marked)
+        last = curr.item;
+      curr = curr.next;
+    }
+    return last;
+  }
+  /**
+   * Elements whose hash codes lie in <code>[lo.hashCode(), hi.hashCode())</code>,
+   * in hash order. Each iteration makes one pass over that part of the list,
+   * without locks. Weakly consistent: returns every element present for the
+   * whole iteration exactly once, and may or may not return the others.
+   * @param lo lowest element, included
+   * @param hi highest element, excluded
+   * @return view of the range
+   */
+  public Iterable<T> subSet(T lo, T hi) {
+    final int loKey = lo.hashCode();
+    final int hiKey = hi.hashCode();
+    return () -> new Cursor(ceilingNode(loKey), hiKey);
+  }
+  /**
+   * Iterate over all elements in hash order, without locks. Weakly
+   * consistent, as for <code>subSet</code>.
+   * @return iterator over elements
+   */
+  public Iterator<T> iterator() {
+    return new Cursor(this.head.next, Integer.MAX_VALUE);
+  }
+  /**
+   * First unmarked Node whose key is not less than key, possibly the tail
+   */
+  private Node ceilingNode(int key) {
+    Node curr = this.head.next;
+    while (curr.key < key || curr.marked)
+      curr = curr.next;
+    return curr;
+  }
+  /**
+   * Walks the list up to a bound, skipping marked Nodes.
+   */
+  private class Cursor implements Iterator<T> {
+    /**
+     * keys from here on are excluded
+     */
+    private final int hiKey;
+    /**
+     * next Node to return
+     */
+    private Node next;
+    Cursor(Node start, int hiKey) {
+      this.hiKey = hiKey;
+      this.next = skip(start);
+    }
+    public boolean hasNext() {
+      return next.key < hiKey && next.item != null;
+    }
+    public T next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      T item = next.item;
+      next = skip(next.next);
+      return item;
+    }
+    private Node skip(Node curr) {
+      while (curr.marked)
+        curr = curr.next;
+      return curr;
+    }
+  }
   /**
    * list Node
    */
@@ -134,11 +229,11 @@ public class LazyList<T> {
     /**
      * next Node in list
      */
-    Node next;
+    volatile Node next;
     /**
      * If true, Node is logically deleted.
      */
-    boolean marked;
+    volatile boolean marked;
     /**
      * Synchronizes Node.
      */
@@ -10,15 +10,22 @@
 
 package lists;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.function.Predicate;
 
 /**
  * Lock-free List based on M. Michael's algorithm.
+ * <p>
+ * Items are ordered by hash code. <code>ceiling</code>, <code>floor</code>,
+ * <code>subSet</code> and <code>iterator</code> walk that order without
+ * snipping, skipping nodes whose next reference is marked.
  * 
  * @param T Item type.
  * @author Maurice Herlihy
  */
-public class LockFreeList<T> {
+public class LockFreeList<T> implements ConcurrentSet<T>, Iterable<T> {
   /**
    * First list node
    */
@@ -84,7 +91,7 @@ public class LockFreeList<T> {
         // snip out matching node
         Node succ = curr.next.getReference();
         // 设置succ 的时候，检查该节点是否存在了
-        snip = curr.next.attemptMark(succ, true);
+        snip = curr.next.compareAndSet(succ, succ, false, true);
         if (!snip)
           continue;
         pred.next.compareAndSet(curr, succ, false, false);
@@ -107,6 +114,171 @@ public class LockFreeList<T> {
     return (curr.key == key);
   }
 
+  /**
+   * Remove every element matching a predicate, in one pass from head. Nodes
+   * are only marked; later calls to <code>find</code> snip them out.
+   * 
+   * @param filter selects elements to remove
+   * @return number of elements this call removed
+   */
+  public int removeIf(Predicate<? super T> filter) {
+    int removed = 0;
+    Node curr = head.next.getReference();
+    while (curr.item != null) {
+      if (filter.test(curr.item) && mark(curr))
+        removed++;
+      curr = curr.next.getReference();
+    }
+    return removed;
+  }
+
+  /**
+   * Remove the elements with the given hash codes, in one pass from head.
+   * Nodes are only marked; later calls to <code>find</code> snip them out.
+   * 
+   * @param keys hash codes to remove, in ascending order
+   * @return number of elements this call removed
+   */
+  public int removeAll(int[] keys) {
+    int removed = 0;
+    Node curr = head.next.getReference();
+    for (int key : keys) {
+      while (curr.key < key)
+        curr = curr.next.getReference();
+      if (curr.key == key && curr.item != null && mark(curr))
+        removed++;
+    }
+    return removed;
+  }
+
+  /**
+   * Mark node as removed.
+   * 
+   * @return true iff this call marked it
+   */
+  private boolean mark(Node node) {
+    boolean[] marked = { false };
+    Node succ = node.next.get(marked);
+    while (!marked[0]) {
+      if (node.next.compareAndSet(succ, succ, false, true))
+        return true;
+      succ = node.next.get(marked);
+    }
+    return false;
+  }
+
+  /**
+   * Least element whose hash code is not less than item's
+   * 
+   * @param item element to compare with
+   * @return matching element, or null if there is none
+   */
+  public T ceiling(T item) {
+    return ceilingNode(item.hashCode()).item;
+  }
+
+  /**
+   * Greatest element whose hash code is not greater than item's
+   * 
+   * @param item element to compare with
+   * @return matching element, or null if there is none
+   */
+  public T floor(T item) {
+    int key = item.hashCode();
+    boolean[] marked = { false };
+    T last = null;
+    Node curr = head.next.getReference();
+    while (curr.key <= key && curr.item != null) {
+      Node succ = curr.next.get(marked);
+      if (!marked[0])
+        last = curr.item;
+      curr = succ;
+    }
+    return last;
+  }
+
+  /**
+   * Elements whose hash codes lie in
+   * <code>[lo.hashCode(), hi.hashCode())</code>, in hash order. Each
+   * iteration makes one pass over that part of the list. Weakly consistent:
+   * returns every element present for the whole iteration exactly once, and
+   * may or may not return the others.
+   * 
+   * @param lo lowest element, included
+   * @param hi highest element, excluded
+   * @return view of the range
+   */
+  public Iterable<T> subSet(T lo, T hi) {
+    final int loKey = lo.hashCode();
+    final int hiKey = hi.hashCode();
+    return () -> new Cursor(ceilingNode(loKey), hiKey);
+  }
+
+  /**
+   * Iterate over all elements in hash order. Weakly consistent, as for
+   * <code>subSet</code>.
+   * 
+   * @return iterator over elements
+   */
+  public Iterator<T> iterator() {
+    return new Cursor(head.next.getReference(), Integer.MAX_VALUE);
+  }
+
+  /**
+   * First unmarked node whose key is not less than key, possibly the tail.
+   * Never snips, so never restarts.
+   */
+  private Node ceilingNode(int key) {
+    Node curr = head.next.getReference();
+    while (curr.key < key)
+      curr = curr.next.getReference();
+    return skip(curr);
+  }
+
+  /**
+   * First unmarked node from curr on.
+   */
+  private Node skip(Node curr) {
+    boolean[] marked = { false };
+    Node succ = curr.next.get(marked);
+    while (marked[0]) {
+      curr = succ;
+      succ = curr.next.get(marked);
+    }
+    return curr;
+  }
+
+  /**
+   * Walks the list up to a bound, skipping marked nodes.
+   */
+  private class Cursor implements Iterator<T> {
+    /**
+     * keys from here on are excluded
+     */
+    private final int hiKey;
+    /**
+     * next node to return
+     */
+    private Node next;
+
+    Cursor(Node start, int hiKey) {
+      this.hiKey = hiKey;
+      this.next = skip(start);
+    }
+
+    public boolean hasNext() {
+      return next.key < hiKey && next.item != null;
+    }
+
+    public T next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      T item = next.item;
+      next = skip(next.next.getReference());
+      return item;
+    }
+  }
+
   /**
    * list node
    */
@@ -0,0 +1,321 @@
+/*
+ * LockFreeSkipListSet.java
+ *
+ * Created on October 18, 2026, 8:50 PM
+ */
+
+package lists;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * Lock-free skip list. The bottom level is a <code>LockFreeList</code>:
+ * nodes are ordered by hash code and removed by marking their own next
+ * reference, and <code>find</code> snips out marked nodes as it goes. Each
+ * node also carries a random-height tower of further marked references, so
+ * searches skip ahead in O(log n) expected steps.
+ * <p>
+ * <code>contains</code> is wait-free: it never snips and never restarts.
+ * <code>add</code> and <code>remove</code> are lock-free. A node is in the
+ * set once it is linked at the bottom level, and leaves it once its bottom
+ * reference is marked.
+ *
+ * @param T Item type.
+ */
+public class LockFreeSkipListSet<T> implements ConcurrentSet<T> {
+  /**
+   * Highest level of any tower.
+   */
+  static final int MAX_LEVEL = 31;
+  /**
+   * First list node
+   */
+  final Node head;
+  /**
+   * Last list node
+   */
+  final Node tail;
+
+  /**
+   * Constructor
+   */
+  public LockFreeSkipListSet() {
+    head = new Node(Integer.MIN_VALUE);
+    tail = new Node(Integer.MAX_VALUE);
+    for (int level = 0; level <= MAX_LEVEL; level++) {
+      head.next[level].set(tail, false);
+    }
+  }
+
+  /**
+   * Add an element.
+   *
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int topLevel = randomLevel();
+    Node[] preds = (Node[]) new LockFreeSkipListSet.Node[MAX_LEVEL + 1];
+    Node[] succs = (Node[]) new LockFreeSkipListSet.Node[MAX_LEVEL + 1];
+    while (true) {
+      if (find(item.hashCode(), preds, succs)) {
+        return false;
+      }
+      Node node = new Node(item, topLevel);
+      for (int level = 0; level <= topLevel; level++) {
+        node.next[level].set(succs[level], false);
+      }
+      // linking the bottom level adds the item
+      if (!preds[0].next[0].compareAndSet(succs[0], node, false, false)) {
+        continue;
+      }
+      // then link the rest of the tower, bottom up
+      for (int level = 1; level <= topLevel; level++) {
+        while (true) {
+          Node succ = node.next[level].getReference();
+          if (succ != succs[level] && !node.next[level].compareAndSet(succ, succs[level], false, false)) {
+            return true; // already being removed, stop building the tower
+          }
+          if (preds[level].next[level].compareAndSet(succs[level], node, false, false)) {
+            break;
+          }
+          find(node.key, preds, succs); // predecessor changed, search again
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Remove an element.
+   *
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    Node[] preds = (Node[]) new LockFreeSkipListSet.Node[MAX_LEVEL + 1];
+    Node[] succs = (Node[]) new LockFreeSkipListSet.Node[MAX_LEVEL + 1];
+    if (!find(item.hashCode(), preds, succs)) {
+      return false;
+    }
+    Node victim = succs[0];
+    // mark the tower top down, so that searches stop using it
+    for (int level = victim.topLevel; level >= 1; level--) {
+      boolean[] marked = { false };
+      Node succ = victim.next[level].get(marked);
+      while (!marked[0]) {
+        victim.next[level].compareAndSet(succ, succ, false, true);
+        succ = victim.next[level].get(marked);
+      }
+    }
+    // marking the bottom level removes the item, only one thread wins
+    boolean[] marked = { false };
+    Node succ = victim.next[0].get(marked);
+    while (true) {
+      if (victim.next[0].compareAndSet(succ, succ, false, true)) {
+        find(victim.key, preds, succs); // snip it out
+        return true;
+      }
+      succ = victim.next[0].get(marked);
+      if (marked[0]) {
+        return false; // someone else removed it
+      }
+    }
+  }
+
+  /**
+   * Test whether element is present. Wait-free: skips marked nodes rather
+   * than snipping them.
+   *
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    Node curr = ceiling(key);
+    return curr.key == key;
+  }
+
+  /**
+   * Iterate over elements in ascending hash order. Weakly consistent:
+   * returns every element present for the whole iteration exactly once.
+   *
+   * @return iterator over elements
+   */
+  public Iterator<T> iterator() {
+    return range(Integer.MIN_VALUE + 1, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Iterate over elements whose hash codes are in <code>[fromKey,
+   * toKey)</code>, in ascending order. Starts with an O(log n) search and
+   * then walks the bottom level. Weakly consistent.
+   *
+   * @param fromKey lowest hash code included
+   * @param toKey   lowest hash code excluded
+   * @return iterator over elements
+   */
+  public Iterator<T> range(int fromKey, int toKey) {
+    return new Cursor(ceiling(fromKey), toKey);
+  }
+
+  /**
+   * First unmarked bottom-level node whose key is not less than key, found
+   * without snipping.
+   */
+  private Node ceiling(int key) {
+    boolean[] marked = { false };
+    Node pred = head, curr = null, succ = null;
+    for (int level = MAX_LEVEL; level >= 0; level--) {
+      curr = pred.next[level].getReference();
+      while (true) {
+        succ = curr.next[level].get(marked);
+        while (marked[0]) { // skip marked nodes
+          curr = succ;
+          succ = curr.next[level].get(marked);
+        }
+        if (curr.key < key) {
+          pred = curr;
+          curr = succ;
+        } else {
+          break;
+        }
+      }
+    }
+    return curr;
+  }
+
+  /**
+   * Fill in the predecessor and successor of key at every level, snipping
+   * out marked nodes on the way, as <code>LockFreeList.find</code> does.
+   *
+   * @return true iff a node with key is linked at the bottom level
+   */
+  private boolean find(int key, Node[] preds, Node[] succs) {
+    boolean[] marked = { false }; // is curr marked?
+    boolean snip;
+    Node pred = null, curr = null, succ = null;
+    retry: while (true) {
+      pred = head;
+      for (int level = MAX_LEVEL; level >= 0; level--) {
+        curr = pred.next[level].getReference();
+        while (true) {
+          succ = curr.next[level].get(marked);
+          while (marked[0]) { // replace curr if marked
+            snip = pred.next[level].compareAndSet(curr, succ, false, false);
+            if (!snip)
+              continue retry;
+            curr = pred.next[level].getReference();
+            succ = curr.next[level].get(marked);
+          }
+          if (curr.key < key) {
+            pred = curr;
+            curr = succ;
+          } else {
+            break;
+          }
+        }
+        preds[level] = pred;
+        succs[level] = curr;
+      }
+      return curr.key == key;
+    }
+  }
+
+  /**
+   * Geometric tower height: level <code>i</code> with probability
+   * <code>2^-(i+1)</code>.
+   */
+  private static int randomLevel() {
+    return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << MAX_LEVEL));
+  }
+
+  /**
+   * list node
+   */
+  private class Node {
+    /**
+     * actual item
+     */
+    final T item;
+    /**
+     * item's hash code
+     */
+    final int key;
+    /**
+     * next node at each level of the tower, marked once removal starts
+     */
+    final AtomicMarkableReference<Node>[] next;
+    /**
+     * highest level of the tower
+     */
+    final int topLevel;
+
+    /**
+     * Constructor for usual node
+     *
+     * @param item     element in list
+     * @param topLevel highest level of the tower
+     */
+    Node(T item, int topLevel) {
+      this.item = item;
+      this.key = item.hashCode();
+      this.topLevel = topLevel;
+      this.next = (AtomicMarkableReference<Node>[]) new AtomicMarkableReference[topLevel + 1];
+      for (int level = 0; level <= topLevel; level++) {
+        next[level] = new AtomicMarkableReference<Node>(null, false);
+      }
+    }
+
+    /**
+     * Constructor for sentinel node
+     *
+     * @param key should be min or max int value
+     */
+    Node(int key) {
+      this.item = null;
+      this.key = key;
+      this.topLevel = MAX_LEVEL;
+      this.next = (AtomicMarkableReference<Node>[]) new AtomicMarkableReference[MAX_LEVEL + 1];
+      for (int level = 0; level <= MAX_LEVEL; level++) {
+        next[level] = new AtomicMarkableReference<Node>(null, false);
+      }
+    }
+  }
+
+  /**
+   * Walks the bottom level up to a bound, skipping marked nodes.
+   */
+  private class Cursor implements Iterator<T> {
+    private final int toKey;
+    private Node next; // next node to return
+
+    Cursor(Node start, int toKey) {
+      this.toKey = toKey;
+      this.next = start;
+    }
+
+    public boolean hasNext() {
+      return next.key < toKey && next != tail;
+    }
+
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T item = next.item;
+      boolean[] marked = { false };
+      Node curr = next.next[0].getReference();
+      Node succ = curr.next[0].get(marked);
+      while (marked[0]) {
+        curr = succ;
+        succ = curr.next[0].get(marked);
+      }
+      next = curr;
+      return item;
+    }
+  }
+}
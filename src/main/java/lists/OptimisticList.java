@@ -18,7 +18,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @param T Item type.
  * @author Maurice Herlihy
  */
-public class OptimisticList<T> {
+public class OptimisticList<T> implements ConcurrentSet<T> {
   /**
    * First list entry
    */
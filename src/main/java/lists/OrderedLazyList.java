@@ -0,0 +1,220 @@
+/*
+ * OrderedLazyList.java
+ *
+ * Created on October 18, 2026, 9:05 PM
+ */
+
+package lists;
+
+import java.util.Comparator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lazy list ordered by hash code, then by comparator. Like
+ * <code>LazyList</code>, but distinct items with the same hash code are kept
+ * apart: the comparator is only called when two hash codes are equal.
+ * @param T Item type.
+ */
+public class OrderedLazyList<T> implements ConcurrentSet<T> {
+  /**
+   * First list Node
+   */
+  private final Node head;
+  /**
+   * Orders items with equal hash codes, <code>null</code> for natural order.
+   */
+  private final Comparator<? super T> comparator;
+
+  /**
+   * Constructor for items that are <code>Comparable</code>.
+   */
+  public OrderedLazyList() {
+    this(null);
+  }
+
+  /**
+   * Constructor
+   * @param comparator orders items with equal hash codes, <code>null</code>
+   *        for natural order
+   */
+  public OrderedLazyList(Comparator<? super T> comparator) {
+    this.comparator = comparator;
+    // Add sentinels to start and end
+    this.head = new Node(Integer.MIN_VALUE);
+    this.head.next = new Node(Integer.MAX_VALUE);
+  }
+
+  /**
+   * @return comparator, or <code>null</code> for natural order
+   */
+  public Comparator<? super T> comparator() {
+    return comparator;
+  }
+
+  /**
+   * Check that prev and curr are still in list and adjacent
+   */
+  private boolean validate(Node pred, Node curr) {
+    return !pred.marked && !curr.marked && pred.next == curr;
+  }
+
+  /**
+   * Add an element.
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Node pred = this.head;
+      Node curr = head.next;
+      int c;
+      while ((c = compare(curr, key, item)) < 0) {
+        pred = curr; curr = curr.next;
+      }
+      pred.lock();
+      try {
+        curr.lock();
+        try {
+          if (validate(pred, curr)) {
+            if (c == 0) { // present
+              return false;
+            } else {      // not present
+              Node node = new Node(item);
+              node.next = curr;
+              pred.next = node;
+              return true;
+            }
+          }
+        } finally { // always unlock
+          curr.unlock();
+        }
+      } finally { // always unlock
+        pred.unlock();
+      }
+    }
+  }
+
+  /**
+   * Remove an element.
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Node pred = this.head;
+      Node curr = head.next;
+      int c;
+      while ((c = compare(curr, key, item)) < 0) {
+        pred = curr; curr = curr.next;
+      }
+      pred.lock();
+      try {
+        curr.lock();
+        try {
+          if (validate(pred, curr)) {
+            if (c != 0) {             // absent
+              return false;
+            } else {                  // present
+              curr.marked = true;     // logically remove
+              pred.next = curr.next;  // physically remove
+              return true;
+            }
+          }
+        } finally {                   // always unlock curr
+          curr.unlock();
+        }
+      } finally {                     // always unlock pred
+        pred.unlock();
+      }
+    }
+  }
+
+  /**
+   * Test whether element is present
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    Node curr = this.head;
+    int c;
+    while ((c = compare(curr, key, item)) < 0)
+      curr = curr.next;
+    return c == 0 && !curr.marked;
+  }
+
+  /**
+   * Where a node lies relative to an item: by hash code first, and by the
+   * comparator only when hash codes are equal.
+   * @return negative, zero or positive as node is before, at or after item
+   */
+  private int compare(Node node, int key, T item) {
+    if (node.key != key) {
+      return node.key < key ? -1 : 1;
+    }
+    if (node.item == null) { // sentinel with a colliding hash code
+      return node == head ? -1 : 1;
+    }
+    return node.item == item ? 0 : compare(node.item, item);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(T x, T y) {
+    return comparator == null ? ((Comparable<? super T>) x).compareTo(y) : comparator.compare(x, y);
+  }
+
+  /**
+   * list Node
+   */
+  private class Node {
+    /**
+     * actual item
+     */
+    final T item;
+    /**
+     * item's hash code
+     */
+    final int key;
+    /**
+     * next Node in list
+     */
+    volatile Node next;
+    /**
+     * If true, Node is logically deleted.
+     */
+    volatile boolean marked;
+    /**
+     * Synchronizes Node.
+     */
+    final Lock lock;
+    /**
+     * Constructor for usual Node
+     * @param item element in list
+     */
+    Node(T item) {      // usual constructor
+      this.item = item;
+      this.key = item.hashCode();
+      this.lock = new ReentrantLock();
+    }
+    /**
+     * Constructor for sentinel Node
+     * @param key should be min or max int value
+     */
+    Node(int key) { // sentinel constructor
+      this.item = null;
+      this.key = key;
+      this.lock = new ReentrantLock();
+    }
+    /**
+     * Lock Node
+     */
+    void lock() {lock.lock();}
+    /**
+     * Unlock Node
+     */
+    void unlock() {lock.unlock();}
+  }
+}
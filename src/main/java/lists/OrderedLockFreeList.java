@@ -0,0 +1,236 @@
+/*
+ * OrderedLockFreeList.java
+ *
+ * Created on October 18, 2026, 9:25 PM
+ */
+
+package lists;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * Lock-free list ordered by hash code, then by comparator. Like
+ * <code>LockFreeList</code>, but distinct items with the same hash code are
+ * kept apart: the comparator is only called when two hash codes are equal.
+ *
+ * @param T Item type.
+ */
+public class OrderedLockFreeList<T> implements ConcurrentSet<T> {
+  /**
+   * First list node
+   */
+  final Node head;
+  /**
+   * Orders items with equal hash codes, <code>null</code> for natural order.
+   */
+  private final Comparator<? super T> comparator;
+
+  /**
+   * Constructor for items that are <code>Comparable</code>.
+   */
+  public OrderedLockFreeList() {
+    this(null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param comparator orders items with equal hash codes, <code>null</code>
+   *                   for natural order
+   */
+  public OrderedLockFreeList(Comparator<? super T> comparator) {
+    this.comparator = comparator;
+    this.head = new Node(Integer.MIN_VALUE);
+    this.head.next.set(new Node(Integer.MAX_VALUE), false);
+  }
+
+  /**
+   * @return comparator, or <code>null</code> for natural order
+   */
+  public Comparator<? super T> comparator() {
+    return comparator;
+  }
+
+  /**
+   * Add an element.
+   *
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int key = item.hashCode();
+    while (true) {
+      // find predecessor and current entries
+      Window window = find(head, key, item);
+      Node pred = window.pred, curr = window.curr;
+      // is the item present?
+      if (compare(curr, key, item) == 0) {
+        return false;
+      } else {
+        // splice in new node
+        Node node = new Node(item);
+        node.next.set(curr, false);
+        if (pred.next.compareAndSet(curr, node, false, false)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove an element.
+   *
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    int key = item.hashCode();
+    boolean snip;
+    while (true) {
+      // find predecessor and current entries
+      Window window = find(head, key, item);
+      Node pred = window.pred, curr = window.curr;
+      // is the item present?
+      if (compare(curr, key, item) != 0) {
+        return false;
+      } else {
+        // mark, then snip out matching node
+        Node succ = curr.next.getReference();
+        snip = curr.next.compareAndSet(succ, succ, false, true);
+        if (!snip)
+          continue;
+        pred.next.compareAndSet(curr, succ, false, false);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Test whether element is present
+   *
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    Window window = find(head, key, item);
+    return compare(window.curr, key, item) == 0;
+  }
+
+  /**
+   * If element is present, returns node and predecessor. If absent, returns
+   * node that would follow it, and predecessor.
+   *
+   * @param head start of list
+   * @param key  hash code of item
+   * @param item item to search for
+   * @return window around the item's position
+   */
+  public Window find(Node head, int key, T item) {
+    Node pred = null, curr = null, succ = null;
+    boolean[] marked = { false }; // is curr marked?
+    boolean snip;
+    retry: while (true) {
+      pred = head;
+      curr = pred.next.getReference();
+      while (true) {
+        succ = curr.next.get(marked);
+        while (marked[0]) { // replace curr if marked
+          snip = pred.next.compareAndSet(curr, succ, false, false);
+          if (!snip)
+            continue retry;
+          curr = pred.next.getReference();
+          succ = curr.next.get(marked);
+        }
+        if (compare(curr, key, item) >= 0)
+          return new Window(pred, curr);
+        pred = curr;
+        curr = succ;
+      }
+    }
+  }
+
+  /**
+   * Where a node lies relative to an item: by hash code first, and by the
+   * comparator only when hash codes are equal.
+   *
+   * @return negative, zero or positive as node is before, at or after item
+   */
+  private int compare(Node node, int key, T item) {
+    if (node.key != key) {
+      return node.key < key ? -1 : 1;
+    }
+    if (node.item == null) { // sentinel with a colliding hash code
+      return node == head ? -1 : 1;
+    }
+    return node.item == item ? 0 : compare(node.item, item);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(T x, T y) {
+    return comparator == null ? ((Comparable<? super T>) x).compareTo(y) : comparator.compare(x, y);
+  }
+
+  /**
+   * list node
+   */
+  class Node {
+    /**
+     * actual item
+     */
+    final T item;
+    /**
+     * item's hash code
+     */
+    final int key;
+    /**
+     * next node in list, marked once this node is removed
+     */
+    final AtomicMarkableReference<Node> next;
+
+    /**
+     * Constructor for usual node
+     *
+     * @param item element in list
+     */
+    Node(T item) { // usual constructor
+      this.item = item;
+      this.key = item.hashCode();
+      this.next = new AtomicMarkableReference<Node>(null, false);
+    }
+
+    /**
+     * Constructor for sentinel node
+     *
+     * @param key should be min or max int value
+     */
+    Node(int key) { // sentinel constructor
+      this.item = null;
+      this.key = key;
+      this.next = new AtomicMarkableReference<Node>(null, false);
+    }
+  }
+
+  /**
+   * Pair of adjacent list entries.
+   */
+  class Window {
+    /**
+     * Earlier node.
+     */
+    public Node pred;
+    /**
+     * Later node.
+     */
+    public Node curr;
+
+    /**
+     * Constructor.
+     */
+    Window(Node pred, Node curr) {
+      this.pred = pred;
+      this.curr = curr;
+    }
+  }
+}
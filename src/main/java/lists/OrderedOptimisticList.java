@@ -0,0 +1,250 @@
+/*
+ * OrderedOptimisticList.java
+ *
+ * Created on October 18, 2026, 9:15 PM
+ */
+package lists;
+
+import java.util.Comparator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optimistic list ordered by hash code, then by comparator. Like
+ * <code>OptimisticList</code>, but distinct items with the same hash code
+ * are kept apart: the comparator is only called when two hash codes are
+ * equal.
+ *
+ * @param T Item type.
+ */
+public class OrderedOptimisticList<T> implements ConcurrentSet<T> {
+  /**
+   * First list entry
+   */
+  private final Entry head;
+  /**
+   * Orders items with equal hash codes, <code>null</code> for natural order.
+   */
+  private final Comparator<? super T> comparator;
+
+  /**
+   * Constructor for items that are <code>Comparable</code>.
+   */
+  public OrderedOptimisticList() {
+    this(null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param comparator orders items with equal hash codes, <code>null</code>
+   *                   for natural order
+   */
+  public OrderedOptimisticList(Comparator<? super T> comparator) {
+    this.comparator = comparator;
+    this.head = new Entry(Integer.MIN_VALUE);
+    this.head.next = new Entry(Integer.MAX_VALUE);
+  }
+
+  /**
+   * @return comparator, or <code>null</code> for natural order
+   */
+  public Comparator<? super T> comparator() {
+    return comparator;
+  }
+
+  /**
+   * Add an element.
+   *
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Entry pred = this.head;
+      Entry curr = pred.next;
+      int c;
+      while ((c = compare(curr, key, item)) < 0) {
+        pred = curr;
+        curr = curr.next;
+      }
+      pred.lock();
+      curr.lock();
+      try {
+        if (validate(pred, curr)) {
+          if (c == 0) { // present
+            return false;
+          } else { // not present
+            Entry entry = new Entry(item);
+            entry.next = curr;
+            pred.next = entry;
+            return true;
+          }
+        }
+      } finally { // always unlock
+        pred.unlock();
+        curr.unlock();
+      }
+    }
+  }
+
+  /**
+   * Remove an element.
+   *
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Entry pred = this.head;
+      Entry curr = pred.next;
+      int c;
+      while ((c = compare(curr, key, item)) < 0) {
+        pred = curr;
+        curr = curr.next;
+      }
+      pred.lock();
+      curr.lock();
+      try {
+        if (validate(pred, curr)) {
+          if (c == 0) { // present in list
+            pred.next = curr.next;
+            return true;
+          } else { // not present in list
+            return false;
+          }
+        }
+      } finally { // always unlock
+        pred.unlock();
+        curr.unlock();
+      }
+    }
+  }
+
+  /**
+   * Test whether element is present
+   *
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Entry pred = this.head; // sentinel node;
+      Entry curr = pred.next;
+      int c;
+      while ((c = compare(curr, key, item)) < 0) {
+        pred = curr;
+        curr = curr.next;
+      }
+      pred.lock();
+      curr.lock();
+      try {
+        if (validate(pred, curr)) {
+          return c == 0;
+        }
+      } finally { // always unlock
+        pred.unlock();
+        curr.unlock();
+      }
+    }
+  }
+
+  /**
+   * Check that prev and curr are still in list and adjacent
+   *
+   * @param pred predecessor node
+   * @param curr current node
+   * @return whether predecessor and current are still reachable and adjacent
+   */
+  private boolean validate(Entry pred, Entry curr) {
+    Entry entry = head;
+    while (entry == head || compare(entry, pred.key, pred.item) <= 0) {
+      if (entry == pred)
+        return pred.next == curr;
+      entry = entry.next;
+    }
+    return false;
+  }
+
+  /**
+   * Where an entry lies relative to an item: by hash code first, and by the
+   * comparator only when hash codes are equal.
+   *
+   * @return negative, zero or positive as entry is before, at or after item
+   */
+  private int compare(Entry entry, int key, T item) {
+    if (entry.key != key) {
+      return entry.key < key ? -1 : 1;
+    }
+    if (entry.item == null) { // sentinel with a colliding hash code
+      return entry == head ? -1 : 1;
+    }
+    return entry.item == item ? 0 : compare(entry.item, item);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(T x, T y) {
+    return comparator == null ? ((Comparable<? super T>) x).compareTo(y) : comparator.compare(x, y);
+  }
+
+  /**
+   * list entry
+   */
+  private class Entry {
+    /**
+     * actual item
+     */
+    final T item;
+    /**
+     * item's hash code
+     */
+    final int key;
+    /**
+     * next entry in list
+     */
+    volatile Entry next;
+    /**
+     * Synchronizes entry.
+     */
+    final Lock lock;
+
+    /**
+     * Constructor for usual entry
+     *
+     * @param item element in list
+     */
+    Entry(T item) {
+      this.item = item;
+      this.key = item.hashCode();
+      lock = new ReentrantLock();
+    }
+
+    /**
+     * Constructor for sentinel entry
+     *
+     * @param key should be min or max int value
+     */
+    Entry(int key) {
+      this.item = null;
+      this.key = key;
+      lock = new ReentrantLock();
+    }
+
+    /**
+     * Lock entry
+     */
+    void lock() {
+      lock.lock();
+    }
+
+    /**
+     * Unlock entry
+     */
+    void unlock() {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * StampedFineList.java
+ *
+ * Created on October 18, 2026, 10:10 PM
+ */
+package lists;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fine-grained list with optimistic traversal. Unlike <code>FineList</code>,
+ * traversal takes no locks: it notes an optimistic stamp on each node before
+ * reading its <code>next</code>. <code>add</code> then write-locks only the
+ * predecessor, and <code>remove</code> the predecessor and the victim. The
+ * stamp is converted to a write lock, which succeeds only if the node was
+ * not written since it was read. <code>contains</code> is wait-free.
+ * @param T Item type.
+ */
+public class StampedFineList<T> implements ConcurrentSet<T> {
+  /**
+   * First list entry
+   */
+  private final Node head;
+  /**
+   * Constructor
+   */
+  public StampedFineList() {
+    // Add sentinels to start and end
+    head      = new Node(Integer.MIN_VALUE);
+    head.next = new Node(Integer.MAX_VALUE);
+  }
+  /**
+   * Add an element.
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Node pred = head;
+      long stamp = pred.lock.tryOptimisticRead();
+      Node curr = pred.next;
+      while (curr.key < key) {
+        pred = curr;
+        stamp = pred.lock.tryOptimisticRead();
+        curr = pred.next;
+      }
+      stamp = lock(pred, stamp, curr);
+      if (stamp == 0L) {
+        continue; // pred changed, start over
+      }
+      try {
+        if (curr.key == key) {
+          return false;
+        }
+        Node newNode = new Node(item);
+        newNode.next = curr;
+        pred.next = newNode;
+        return true;
+      } finally {
+        pred.lock.unlockWrite(stamp);
+      }
+    }
+  }
+  /**
+   * Remove an element.
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Node pred = head;
+      long stamp = pred.lock.tryOptimisticRead();
+      Node curr = pred.next;
+      while (curr.key < key) {
+        pred = curr;
+        stamp = pred.lock.tryOptimisticRead();
+        curr = pred.next;
+      }
+      stamp = lock(pred, stamp, curr);
+      if (stamp == 0L) {
+        continue; // pred changed, start over
+      }
+      try {
+        if (curr.key != key) {
+          return false;
+        }
+        // curr cannot be removed while we hold pred, but may be gaining a successor
+        long currStamp = curr.lock.writeLock();
+        try {
+          curr.marked = true;
+          pred.next = curr.next;
+          return true;
+        } finally {
+          curr.lock.unlockWrite(currStamp);
+        }
+      } finally {
+        pred.lock.unlockWrite(stamp);
+      }
+    }
+  }
+  /**
+   * Test whether element is present. Wait-free: takes no locks.
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    Node curr = head;
+    while (curr.key < key) {
+      curr = curr.next;
+    }
+    return curr.key == key && !curr.marked;
+  }
+  /**
+   * Write-lock a node seen during traversal, if it is still in the list and
+   * still followed by next. Converts the optimistic stamp when nobody wrote
+   * the node since; otherwise waits for the lock and checks by hand.
+   * @param node node to lock
+   * @param stamp optimistic stamp taken before reading node's next
+   * @param next successor seen during traversal
+   * @return write stamp, or zero (and not locked) if node changed
+   */
+  private long lock(Node node, long stamp, Node next) {
+    long writeStamp = node.lock.tryConvertToWriteLock(stamp);
+    if (writeStamp == 0L) {
+      writeStamp = node.lock.writeLock();
+      if (node.next != next) {
+        node.lock.unlockWrite(writeStamp);
+        return 0L;
+      }
+    }
+    // a removed node keeps its next, so an unchanged stamp is not enough
+    if (node.marked) {
+      node.lock.unlockWrite(writeStamp);
+      return 0L;
+    }
+    return writeStamp;
+  }
+  /**
+   * list entry
+   */
+  private class Node {
+    /**
+     * actual item
+     */
+    final T item;
+    /**
+     * item's hash code
+     */
+    final int key;
+    /**
+     * next entry in list
+     */
+    volatile Node next;
+    /**
+     * If true, entry is no longer in the list.
+     */
+    volatile boolean marked;
+    /**
+     * Synchronizes entry; writers only.
+     */
+    final StampedLock lock = new StampedLock();
+    /**
+     * Constructor for usual entry
+     * @param item element in list
+     */
+    Node(T item) {
+      this.item = item;
+      this.key = item.hashCode();
+    }
+    /**
+     * Constructor for sentinel entry
+     * @param key should be min or max int value
+     */
+    Node(int key) {
+      this.item = null;
+      this.key = key;
+    }
+  }
+}
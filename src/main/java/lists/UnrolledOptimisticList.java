@@ -0,0 +1,290 @@
+/*
+ * UnrolledOptimisticList.java
+ *
+ * Created on October 18, 2026, 11:10 PM
+ */
+package lists;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Unrolled optimistic list: each node is a chunk holding up to
+ * <code>chunkSize</code> items, sorted by hash code in a contiguous
+ * <code>int</code> array, so a search reads a few cache lines per chunk
+ * instead of chasing a pointer per item.
+ * <p>
+ * Every chunk covers the hash codes from its own fixed lower bound up to
+ * its successor's. As in <code>OptimisticList</code>, threads find the chunk
+ * for a key without locking, then validate it. Here validation is local:
+ * the chunk must not have been merged away and must still cover the key.
+ * Writers validate under the chunk's write lock. <code>contains</code>
+ * reads under an optimistic stamp and only takes the read lock if a writer
+ * got in the way.
+ * <p>
+ * A full chunk splits in two. A chunk that falls below a quarter full
+ * absorbs its successor if both fit in three quarters of a chunk. Locks are
+ * always taken in list order, chunk before successor.
+ *
+ * @param T Item type.
+ */
+public class UnrolledOptimisticList<T> implements ConcurrentSet<T> {
+  static final int DEFAULT_CHUNK_SIZE = 32;
+  /**
+   * First chunk, never removed.
+   */
+  private final Chunk head;
+  /**
+   * Items per chunk.
+   */
+  private final int chunkSize;
+
+  /**
+   * Constructor
+   */
+  public UnrolledOptimisticList() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param chunkSize items per chunk, 4 to 1024; 16 to 64 suits most
+   *                  caches
+   */
+  public UnrolledOptimisticList(int chunkSize) {
+    if (chunkSize < 4 || chunkSize > 1024) {
+      throw new IllegalArgumentException("chunkSize " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    this.head = new Chunk(Integer.MIN_VALUE, chunkSize);
+  }
+
+  /**
+   * Add an element.
+   *
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Chunk chunk = locate(key);
+      long stamp = chunk.lock.writeLock();
+      try {
+        if (!chunk.covers(key)) {
+          continue; // split or merged meanwhile
+        }
+        int i = chunk.indexOf(key);
+        if (i >= 0) { // present
+          return false;
+        }
+        if (chunk.count < chunkSize) {
+          chunk.insert(-(i + 1), key, item);
+        } else {
+          split(chunk, -(i + 1), key, item);
+        }
+        return true;
+      } finally {
+        chunk.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Remove an element.
+   *
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Chunk chunk = locate(key);
+      long stamp = chunk.lock.writeLock();
+      try {
+        if (!chunk.covers(key)) {
+          continue; // split or merged meanwhile
+        }
+        int i = chunk.indexOf(key);
+        if (i < 0) { // not present
+          return false;
+        }
+        chunk.delete(i);
+        if (chunk.count < chunkSize / 4) {
+          merge(chunk);
+        }
+        return true;
+      } finally {
+        chunk.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Test whether element is present
+   *
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    while (true) {
+      Chunk chunk = locate(key);
+      long stamp = chunk.lock.tryOptimisticRead();
+      boolean covers = chunk.covers(key);
+      boolean found = covers && chunk.indexOf(key) >= 0;
+      if (chunk.lock.validate(stamp)) {
+        if (covers) {
+          return found;
+        }
+        continue; // split or merged before we looked
+      }
+      // a writer got in the way, wait for it
+      stamp = chunk.lock.readLock();
+      try {
+        if (chunk.covers(key)) {
+          return chunk.indexOf(key) >= 0;
+        }
+      } finally {
+        chunk.lock.unlockRead(stamp);
+      }
+    }
+  }
+
+  /**
+   * Last chunk whose lower bound is not above key. Takes no locks, so the
+   * caller must validate the result.
+   */
+  private Chunk locate(int key) {
+    Chunk chunk = head;
+    Chunk next = chunk.next;
+    while (next != null && next.min <= key) {
+      chunk = next;
+      next = chunk.next;
+    }
+    return chunk;
+  }
+
+  /**
+   * Move the upper half of a full chunk into a new successor, and add the
+   * item to whichever half it belongs in. The successor is complete before
+   * it is linked in. Caller holds the chunk's write lock.
+   *
+   * @param at where the item goes in the full chunk
+   */
+  private void split(Chunk chunk, int at, int key, T item) {
+    int half = chunkSize / 2;
+    Chunk upper = new Chunk(chunk.keys[half], chunkSize);
+    upper.count = chunk.count - half;
+    System.arraycopy(chunk.keys, half, upper.keys, 0, upper.count);
+    System.arraycopy(chunk.items, half, upper.items, 0, upper.count);
+    if (at > half) {
+      upper.insert(at - half, key, item);
+    }
+    upper.next = chunk.next;
+    chunk.next = upper;
+    Arrays.fill(chunk.items, half, chunk.count, null);
+    chunk.count = half;
+    if (at <= half) {
+      chunk.insert(at, key, item);
+    }
+  }
+
+  /**
+   * Absorb the successor if the two fit comfortably in one chunk. Caller
+   * holds the chunk's write lock.
+   */
+  private void merge(Chunk chunk) {
+    Chunk next = chunk.next;
+    if (next == null) {
+      return;
+    }
+    long stamp = next.lock.writeLock();
+    try {
+      if (chunk.count + next.count <= chunkSize * 3 / 4) {
+        System.arraycopy(next.keys, 0, chunk.keys, chunk.count, next.count);
+        System.arraycopy(next.items, 0, chunk.items, chunk.count, next.count);
+        chunk.count += next.count;
+        next.removed = true;
+        chunk.next = next.next;
+      }
+    } finally {
+      next.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * list chunk
+   */
+  private static final class Chunk {
+    /**
+     * least hash code this chunk may hold
+     */
+    final int min;
+    /**
+     * hash codes of items, sorted, first <code>count</code> in use
+     */
+    final int[] keys;
+    /**
+     * actual items, in the same order
+     */
+    final Object[] items;
+    /**
+     * number of items
+     */
+    int count;
+    /**
+     * next chunk in list
+     */
+    volatile Chunk next;
+    /**
+     * If true, chunk was merged into its predecessor.
+     */
+    volatile boolean removed;
+    /**
+     * Synchronizes chunk.
+     */
+    final StampedLock lock = new StampedLock();
+
+    Chunk(int min, int capacity) {
+      this.min = min;
+      this.keys = new int[capacity];
+      this.items = new Object[capacity];
+    }
+
+    /**
+     * Is this still the chunk for key? Its lower bound is fixed, so only the
+     * upper bound can have moved.
+     */
+    boolean covers(int key) {
+      Chunk next = this.next;
+      return !removed && (next == null || key < next.min);
+    }
+
+    /**
+     * Binary search. Safe to call under an optimistic stamp: a torn count
+     * still stays within the array.
+     *
+     * @return index of key, or <code>-(insertion point) - 1</code>
+     */
+    int indexOf(int key) {
+      return Arrays.binarySearch(keys, 0, Math.min(count, keys.length), key);
+    }
+
+    void insert(int at, int key, Object item) {
+      System.arraycopy(keys, at, keys, at + 1, count - at);
+      System.arraycopy(items, at, items, at + 1, count - at);
+      keys[at] = key;
+      items[at] = item;
+      count++;
+    }
+
+    void delete(int at) {
+      System.arraycopy(keys, at + 1, keys, at, count - at - 1);
+      System.arraycopy(items, at + 1, items, at, count - at - 1);
+      count--;
+      items[count] = null;
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * VarHandleLockFreeList.java
+ *
+ * Created on October 18, 2026, 9:50 PM
+ */
+
+package lists;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free list that does not allocate on retries.
+ * <p>
+ * <code>LockFreeList</code> keeps each node's mark in an
+ * <code>AtomicMarkableReference</code>, which allocates a pair on every
+ * successful CAS, and its <code>find</code> returns a new
+ * <code>Window</code>. Here <code>next</code> is a plain volatile field
+ * updated through a <code>VarHandle</code>, and a node is marked by
+ * swinging its <code>next</code> to a marker node that holds the real
+ * successor. A node can no longer gain successors once marked, because every
+ * insertion CASes the predecessor's <code>next</code> from an unmarked
+ * node. <code>find</code> reports through a per-thread window.
+ * <p>
+ * <code>add</code> allocates its node at most once however often it
+ * retries, and <code>remove</code> its marker at most once;
+ * <code>contains</code> allocates nothing.
+ *
+ * @param T Item type.
+ */
+public class VarHandleLockFreeList<T> implements ConcurrentSet<T> {
+  private static final VarHandle NEXT;
+  static {
+    try {
+      NEXT = MethodHandles.lookup().findVarHandle(Node.class, "next", Node.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+  /**
+   * First list node
+   */
+  final Node<T> head;
+  /**
+   * Result holder for <code>find</code>, one per thread.
+   */
+  private final ThreadLocal<Window<T>> window = ThreadLocal.withInitial(Window::new);
+
+  /**
+   * Constructor
+   */
+  public VarHandleLockFreeList() {
+    this.head = new Node<T>(Integer.MIN_VALUE);
+    this.head.next = new Node<T>(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Add an element.
+   *
+   * @param item element to add
+   * @return true iff element was not there already
+   */
+  public boolean add(T item) {
+    int key = item.hashCode();
+    Window<T> window = this.window.get();
+    Node<T> node = null;
+    while (true) {
+      find(key, window);
+      Node<T> pred = window.pred, curr = window.curr;
+      if (curr.key == key) {
+        return false;
+      }
+      if (node == null) {
+        node = new Node<T>(item);
+      }
+      NEXT.set(node, curr); // published by the CAS below
+      if (NEXT.compareAndSet(pred, curr, node)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Remove an element.
+   *
+   * @param item element to remove
+   * @return true iff element was present
+   */
+  public boolean remove(T item) {
+    int key = item.hashCode();
+    Window<T> window = this.window.get();
+    Marker<T> marker = null;
+    while (true) {
+      find(key, window);
+      Node<T> pred = window.pred, curr = window.curr;
+      if (curr.key != key) {
+        return false;
+      }
+      Node<T> succ = curr.next;
+      if (succ instanceof Marker) {
+        continue; // someone else is removing it, find will snip it
+      }
+      if (marker == null) {
+        marker = new Marker<T>();
+      }
+      NEXT.set(marker, succ); // published by the CAS below
+      if (NEXT.compareAndSet(curr, succ, marker)) {
+        NEXT.compareAndSet(pred, curr, succ); // snip, or leave it to find
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Test whether element is present. Wait-free: steps over markers rather
+   * than snipping them.
+   *
+   * @param item element to test
+   * @return true iff element is present
+   */
+  public boolean contains(T item) {
+    int key = item.hashCode();
+    Node<T> curr = head.next;
+    while (curr.key < key) {
+      curr = curr.next;
+      if (curr instanceof Marker) {
+        curr = curr.next;
+      }
+    }
+    return curr.key == key && !(curr.next instanceof Marker);
+  }
+
+  /**
+   * Set window to the node with key, or the node with least larger key, and
+   * its predecessor, snipping out marked nodes on the way.
+   *
+   * @param key    key to search for
+   * @param window where to put the result
+   */
+  private void find(int key, Window<T> window) {
+    Node<T> pred, curr, succ;
+    retry: while (true) {
+      pred = head;
+      curr = pred.next;
+      while (true) {
+        succ = curr.next;
+        while (succ instanceof Marker) { // curr is marked, snip it
+          if (!NEXT.compareAndSet(pred, curr, succ.next))
+            continue retry;
+          curr = succ.next;
+          succ = curr.next;
+        }
+        if (curr.key >= key) {
+          window.pred = pred;
+          window.curr = curr;
+          return;
+        }
+        pred = curr;
+        curr = succ;
+      }
+    }
+  }
+
+  /**
+   * list node
+   */
+  static class Node<T> {
+    /**
+     * actual item
+     */
+    final T item;
+    /**
+     * item's hash code
+     */
+    final int key;
+    /**
+     * next node in list, or a marker once this node is removed
+     */
+    volatile Node<T> next;
+
+    /**
+     * Constructor for usual node
+     *
+     * @param item element in list
+     */
+    Node(T item) {
+      this.item = item;
+      this.key = item.hashCode();
+    }
+
+    /**
+     * Constructor for sentinel node
+     *
+     * @param key should be min or max int value
+     */
+    Node(int key) {
+      this.item = null;
+      this.key = key;
+    }
+  }
+
+  /**
+   * Stands between a removed node and its successor. Its <code>next</code>
+   * never changes once published.
+   */
+  static final class Marker<T> extends Node<T> {
+    Marker() {
+      super(0);
+    }
+  }
+
+  /**
+   * Pair of adjacent list entries, reused by one thread.
+   */
+  static final class Window<T> {
+    /**
+     * Earlier node.
+     */
+    Node<T> pred;
+    /**
+     * Later node.
+     */
+    Node<T> curr;
+  }
+}